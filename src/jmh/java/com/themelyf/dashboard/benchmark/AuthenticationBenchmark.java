@@ -0,0 +1,97 @@
+package com.themelyf.dashboard.benchmark;
+
+import com.themelyf.dashboard.model.User;
+import com.themelyf.dashboard.repository.UserRepository;
+import com.themelyf.dashboard.service.AuthenticationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login hot path over {@value #USER_COUNT} accounts: user lookup from the details cache and
+ * from the database, BCrypt verification on its own, and the whole
+ * {@link AuthenticationService#authenticateUser} call, which is dominated by it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationBenchmark {
+
+    private static final int USER_COUNT = 10_000;
+
+    private ConfigurableApplicationContext context;
+
+    private UserDetailsService userDetailsService;
+
+    private UserRepository userRepository;
+
+    private PasswordEncoder passwordEncoder;
+
+    private AuthenticationService authenticationService;
+
+    private String username;
+
+    private String passwordHash;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkFixtures.start();
+        passwordEncoder = context.getBean(PasswordEncoder.class);
+        passwordHash = passwordEncoder.encode(BenchmarkFixtures.PASSWORD);
+        BenchmarkFixtures.seedUsers(context, USER_COUNT, passwordHash);
+
+        userDetailsService = context.getBean(UserDetailsService.class);
+        userRepository = context.getBean(UserRepository.class);
+        authenticationService = context.getBean(AuthenticationService.class);
+        username = BenchmarkFixtures.USERNAME_PREFIX + (USER_COUNT / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        context.close();
+    }
+
+    @Benchmark
+    public UserDetails userLookupCached() {
+        return userDetailsService.loadUserByUsername(username);
+    }
+
+    @Benchmark
+    public Optional<User> userLookupDatabase() {
+        return userRepository.findByUsernameOrEmail(username, username);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public boolean passwordVerification() {
+        return passwordEncoder.matches(BenchmarkFixtures.PASSWORD, passwordHash);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Authentication authenticateUser() {
+        return authenticationService.authenticateUser(username, BenchmarkFixtures.PASSWORD, null);
+    }
+}
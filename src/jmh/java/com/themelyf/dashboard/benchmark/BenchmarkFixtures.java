@@ -0,0 +1,125 @@
+package com.themelyf.dashboard.benchmark;
+
+import com.themelyf.dashboard.DashboardApplication;
+import com.themelyf.dashboard.service.DashboardFacetService;
+import com.themelyf.dashboard.service.DashboardSearchIndex;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Starts the application against a private in-memory database and fills it with data
+ * generated from a fixed seed, so every run and every version benchmarks the same rows.
+ */
+final class BenchmarkFixtures {
+
+    static final long SEED = 20240101L;
+
+    static final String USERNAME_PREFIX = "bench-user-";
+
+    static final String PASSWORD = "bench-password";
+
+    static final String[] CATEGORIES = {
+        "Welcome", "Project", "Task", "Security", "Documentation", "Optimization", "Testing",
+        "Integration", "Training", "Maintenance", "Analysis", "Migration", "Guidelines"
+    };
+
+    static final String[] STATUSES = {"Active", "Pending", "Completed", "Scheduled", "Draft"};
+
+    private static final String[] WORDS = {
+        "alpha", "beta", "gamma", "delta", "report", "migration", "review", "dashboard", "release",
+        "customer", "pipeline", "security", "audit", "backlog", "planning", "metrics", "cache",
+        "database", "frontend", "backend", "rollout", "incident", "roadmap", "quarterly", "budget"
+    };
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final AtomicInteger databases = new AtomicInteger();
+
+    private BenchmarkFixtures() {}
+
+    static ConfigurableApplicationContext start() {
+        // Passed as arguments so they win over application.yml
+        return new SpringApplicationBuilder(DashboardApplication.class).run(
+            "--spring.main.banner-mode=off",
+            "--spring.datasource.url=jdbc:h2:mem:bench-" + databases.incrementAndGet() + ";DB_CLOSE_DELAY=-1",
+            "--spring.jpa.show-sql=false",
+            "--spring.h2.console.enabled=false",
+            "--server.port=0",
+            "--app.rate-limit.enabled=false",
+            "--logging.level.root=WARN",
+            "--logging.level.com.themelyf=WARN");
+    }
+
+    // Deterministic items on top of the sample data, then the in-memory index, facets and caches are rebuilt
+    static void seedItems(ConfigurableApplicationContext context, int count) {
+        Random random = new Random(SEED);
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        for (int i = 0; i < count; i++) {
+            Timestamp time = Timestamp.valueOf(BASE_TIME.plusMinutes(i));
+            rows.add(new Object[] {
+                sentence(random, 3) + " " + i,
+                sentence(random, 20),
+                CATEGORIES[random.nextInt(CATEGORIES.length)],
+                STATUSES[random.nextInt(STATUSES.length)],
+                time,
+                time
+            });
+            if (rows.size() == BATCH_SIZE || i == count - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO dashboard_items " +
+                    "(title, description, category, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+
+        context.getBean(DashboardSearchIndex.class).rebuild();
+        context.getBean(DashboardFacetService.class).rebuild();
+        clearCaches(context);
+    }
+
+    // Every account shares one hash, so seeding does not pay for thousands of BCrypt rounds
+    static void seedUsers(ConfigurableApplicationContext context, int count, String passwordHash) {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        for (int i = 0; i < count; i++) {
+            Timestamp time = Timestamp.valueOf(BASE_TIME.plusMinutes(i));
+            rows.add(new Object[] {
+                USERNAME_PREFIX + i, USERNAME_PREFIX + i + "@bench.example", passwordHash, "Bench", "User " + i, time, time
+            });
+            if (rows.size() == BATCH_SIZE || i == count - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO users (username, email, password, first_name, last_name, role, " +
+                    "account_non_expired, account_non_locked, credentials_non_expired, enabled, email_verified, " +
+                    "phone_verified, two_factor_enabled, failed_login_attempts, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, ?, ?, 'USER', TRUE, TRUE, TRUE, TRUE, TRUE, FALSE, FALSE, 0, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+
+    static void clearCaches(ConfigurableApplicationContext context) {
+        CacheManager cacheManager = context.getBean(CacheManager.class);
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.toString();
+    }
+}
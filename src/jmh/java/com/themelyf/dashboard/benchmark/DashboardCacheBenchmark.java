@@ -0,0 +1,115 @@
+package com.themelyf.dashboard.benchmark;
+
+import com.themelyf.dashboard.model.DashboardItem;
+import com.themelyf.dashboard.model.ItemFilter;
+import com.themelyf.dashboard.model.ItemPage;
+import com.themelyf.dashboard.repository.DashboardItemRepository;
+import com.themelyf.dashboard.repository.FacetCount;
+import com.themelyf.dashboard.service.DashboardService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cached dashboard reads, each measured on a hit and on a miss. A miss evicts the entry
+ * first; the eviction is a single map removal, noise next to the query it causes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DashboardCacheBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000", "10000", "100000"})
+    private int itemCount;
+
+    private ConfigurableApplicationContext context;
+
+    private DashboardService dashboardService;
+
+    private DashboardItemRepository repository;
+
+    private Cache itemPages;
+
+    private Cache dashboardItem;
+
+    private ItemFilter filter;
+
+    private Long itemId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkFixtures.start();
+        BenchmarkFixtures.seedItems(context, itemCount);
+        dashboardService = context.getBean(DashboardService.class);
+        repository = context.getBean(DashboardItemRepository.class);
+
+        CacheManager cacheManager = context.getBean(CacheManager.class);
+        itemPages = cacheManager.getCache("itemPages");
+        dashboardItem = cacheManager.getCache("dashboardItem");
+
+        filter = ItemFilter.of(null, "Project", "Active");
+        itemId = (long) itemCount / 2;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ItemPage itemPageHit() {
+        return dashboardService.findItems(filter, null, PAGE_SIZE, Sort.Direction.DESC);
+    }
+
+    @Benchmark
+    public ItemPage itemPageMiss() {
+        itemPages.clear();
+        return dashboardService.findItems(filter, null, PAGE_SIZE, Sort.Direction.DESC);
+    }
+
+    @Benchmark
+    public Optional<DashboardItem> itemByIdHit() {
+        return dashboardService.getItemById(itemId);
+    }
+
+    @Benchmark
+    public Optional<DashboardItem> itemByIdMiss() {
+        dashboardItem.clear();
+        return dashboardService.getItemById(itemId);
+    }
+
+    // Facets: maintained in-memory counters against the GROUP BY they replace
+    @Benchmark
+    public Map<String, Long> facetCounters() {
+        return dashboardService.getCategoryCounts();
+    }
+
+    @Benchmark
+    public List<FacetCount> facetQuery() {
+        return repository.countByCategory();
+    }
+}
@@ -0,0 +1,71 @@
+package com.themelyf.dashboard.benchmark;
+
+import com.themelyf.dashboard.model.DashboardItem;
+import com.themelyf.dashboard.repository.DashboardItemRepository;
+import com.themelyf.dashboard.service.DashboardService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Free-text search through {@link DashboardService#searchItems}, which answers from the
+ * n-gram index, against the {@code LIKE} scan in {@link DashboardItemRepository#findBySearchTerm}.
+ * "quarterly" matches a large share of the rows, "4242" only a handful.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int itemCount;
+
+    @Param({"quarterly", "4242"})
+    private String term;
+
+    private ConfigurableApplicationContext context;
+
+    private DashboardService dashboardService;
+
+    private DashboardItemRepository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkFixtures.start();
+        BenchmarkFixtures.seedItems(context, itemCount);
+        dashboardService = context.getBean(DashboardService.class);
+        repository = context.getBean(DashboardItemRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<DashboardItem> searchIndex() {
+        return dashboardService.searchItems(term);
+    }
+
+    @Benchmark
+    public List<DashboardItem> searchDatabase() {
+        return repository.findBySearchTerm(term);
+    }
+}
@@ -0,0 +1,130 @@
+package com.themelyf.dashboard.loadtest;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One visitor: its own cookie jar (session and remember-me cookies) and the CSRF token last
+ * rendered into a form. Redirects are not followed, each request is timed on its own.
+ */
+final class BrowserSession {
+
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+
+    private final HttpClient client;
+
+    private final LatencyRecorder recorder;
+
+    private volatile String csrfToken;
+
+    BrowserSession(String baseUrl, LatencyRecorder recorder) {
+        this.baseUrl = baseUrl;
+        this.recorder = recorder;
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .cookieHandler(new CookieManager())
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(TIMEOUT)
+            .build();
+    }
+
+    HttpResponse<String> get(String endpoint, String path, long startNanos) {
+        return send(endpoint, request(path).GET().build(), startNanos);
+    }
+
+    HttpResponse<String> postForm(String endpoint, String path, Map<String, String> fields, long startNanos) {
+        StringJoiner body = new StringJoiner("&");
+        fields.forEach((name, value) -> body.add(encode(name) + "=" + encode(value)));
+        if (csrfToken != null) {
+            body.add("_csrf=" + encode(csrfToken));
+        }
+        return send(endpoint, request(path)
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+            .build(), startNanos);
+    }
+
+    HttpResponse<String> postJson(String endpoint, String path, String json, long startNanos) {
+        HttpRequest.Builder builder = request(path)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (csrfToken != null) {
+            builder.header("X-CSRF-TOKEN", csrfToken);
+        }
+        return send(endpoint, builder.build(), startNanos);
+    }
+
+    // Form login; true when the server redirected anywhere but back to the login page
+    boolean login(String username, String password, long startNanos) {
+        return login("login", username, password, null, startNanos);
+    }
+
+    // Form login of a two-factor account, with the code from its authenticator app
+    boolean login(String endpoint, String username, String password, String otpCode, long startNanos) {
+        get("login-page", "/login", startNanos);
+        Map<String, String> form = new LinkedHashMap<>();
+        form.put("username", username);
+        form.put("password", password);
+        if (otpCode != null) {
+            form.put("otpCode", otpCode);
+        }
+        HttpResponse<String> response = postForm(endpoint, "/login", form, System.nanoTime());
+        return response != null && response.statusCode() == 302 &&
+            !response.headers().firstValue("Location").orElse("").contains("/login");
+    }
+
+    private HttpResponse<String> send(String endpoint, HttpRequest request, long startNanos) {
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            boolean success = response.statusCode() < 400 && !isLoginRedirect(response);
+            recorder.record(endpoint, startNanos, success, response.statusCode());
+            captureCsrf(response.body());
+            return response;
+        } catch (IOException e) {
+            recorder.record(endpoint, startNanos, false, 0);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    // A page bouncing to /login lost its session, a login bouncing back to it (?error) failed
+    private static boolean isLoginRedirect(HttpResponse<String> response) {
+        return response.statusCode() == 302 &&
+            response.headers().firstValue("Location").orElse("").contains("/login");
+    }
+
+    private void captureCsrf(String body) {
+        if (body != null) {
+            Matcher matcher = CSRF.matcher(body);
+            if (matcher.find()) {
+                csrfToken = matcher.group(1);
+            }
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,161 @@
+package com.themelyf.dashboard.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-endpoint latency in microseconds. Request threads record into HdrHistogram
+ * {@link Recorder}s; {@link #sample} swaps them once per interval, writes each interval
+ * histogram to the run's {@code .hlog} tagged with its endpoint (so spikes can be placed in
+ * time) and adds it to the endpoint's total for the final percentiles.
+ */
+final class LatencyRecorder {
+
+    // Anything slower than a minute is recorded as a minute
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentSkipListMap<>();
+
+    private final Map<String, LongAdder> skipped = new ConcurrentHashMap<>();
+
+    private final HistogramLogWriter logWriter;
+
+    private final ReentrantLock sampleLock = new ReentrantLock();
+
+    private final long startMillis = System.currentTimeMillis();
+
+    private volatile boolean measuring = false;
+
+    private long measuringSinceNanos;
+
+    private long measuredNanos;
+
+    LatencyRecorder(Path logFile) throws FileNotFoundException {
+        this.logWriter = new HistogramLogWriter(logFile.toFile());
+        logWriter.outputLogFormatVersion();
+        logWriter.outputStartTime(startMillis);
+        logWriter.setBaseTime(startMillis);
+        logWriter.outputLegend();
+    }
+
+    // status is the HTTP status of a failed request, or 0 when it never got a response
+    void record(String endpoint, long startNanos, boolean success, int status) {
+        if (!measuring) {
+            return;
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, Endpoint::new);
+        stats.recorder.recordValue(Math.min(Math.max(micros, 0), MAX_MICROS));
+        if (!success) {
+            stats.errors.increment();
+            stats.errorStatuses.computeIfAbsent(status, k -> new LongAdder()).increment();
+        }
+    }
+
+    // Work the harness could not do, such as an open-loop arrival over the in-flight limit
+    void skip(String reason) {
+        if (measuring) {
+            skipped.computeIfAbsent(reason, k -> new LongAdder()).increment();
+        }
+    }
+
+    void startMeasuring() {
+        // Drops whatever was recorded during warm-up
+        endpoints.values().forEach(endpoint -> endpoint.recorder.reset());
+        measuringSinceNanos = System.nanoTime();
+        measuring = true;
+    }
+
+    void stopMeasuring() {
+        sample();
+        measuring = false;
+        measuredNanos = System.nanoTime() - measuringSinceNanos;
+    }
+
+    // A lock rather than synchronized: the log write must not pin a virtual thread's carrier
+    void sample() {
+        sampleLock.lock();
+        try {
+            if (!measuring) {
+                return;
+            }
+            for (Endpoint endpoint : endpoints.values()) {
+                endpoint.interval = endpoint.recorder.getIntervalHistogram(endpoint.interval);
+                if (endpoint.interval.getTotalCount() == 0) {
+                    continue;
+                }
+                endpoint.interval.setTag(endpoint.name);
+                logWriter.outputIntervalHistogram(endpoint.interval);
+                endpoint.total.add(endpoint.interval);
+            }
+        } finally {
+            sampleLock.unlock();
+        }
+    }
+
+    void report(PrintStream out, Path reportDir, String label) throws IOException {
+        logWriter.close();
+        double seconds = measuredNanos / 1e9;
+
+        StringBuilder csv = new StringBuilder("endpoint,count,errors,throughput_per_s,p50_ms,p95_ms,p99_ms,p999_ms,max_ms\n");
+        out.printf("%n%-18s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+            "endpoint", "count", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Endpoint endpoint : endpoints.values()) {
+            Histogram total = endpoint.total;
+            Object[] row = {
+                endpoint.name, total.getTotalCount(), endpoint.errors.sum(), total.getTotalCount() / seconds,
+                millis(total.getValueAtPercentile(50)), millis(total.getValueAtPercentile(95)),
+                millis(total.getValueAtPercentile(99)), millis(total.getValueAtPercentile(99.9)),
+                millis(total.getMaxValue())
+            };
+            out.printf("%-18s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", row);
+            csv.append(String.format("%s,%d,%d,%.2f,%.3f,%.3f,%.3f,%.3f,%.3f%n", row));
+
+            // Percentile distribution in the format the HdrHistogram plotter reads, for overlaying runs
+            try (PrintStream hgrm = new PrintStream(reportDir.resolve(label + "-" + endpoint.name + ".hgrm").toFile())) {
+                total.outputPercentileDistribution(hgrm, 1000.0);
+            }
+        }
+        for (Endpoint endpoint : endpoints.values()) {
+            endpoint.errorStatuses.forEach((status, count) -> out.printf("%s errors with %s: %d%n",
+                endpoint.name, status == 0 ? "no response" : "status " + status, count.sum()));
+        }
+        skipped.forEach((reason, count) -> out.printf("skipped %s: %d%n", reason, count.sum()));
+        Files.writeString(reportDir.resolve(label + "-summary.csv"), csv);
+        out.printf("%nMeasured %.1fs. Reports in %s (%s.hlog, %s-summary.csv, %s-<endpoint>.hgrm)%n",
+            seconds, reportDir.toAbsolutePath(), label, label, label);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static final class Endpoint {
+
+        final String name;
+        final Recorder recorder = new Recorder(MAX_MICROS, SIGNIFICANT_DIGITS);
+        final Histogram total = new Histogram(MAX_MICROS, SIGNIFICANT_DIGITS);
+        final LongAdder errors = new LongAdder();
+        final Map<Integer, LongAdder> errorStatuses = new ConcurrentSkipListMap<>();
+        Histogram interval;
+
+        Endpoint(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.themelyf.dashboard.loadtest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load generator for a locally started application:
+ *
+ * <pre>
+ * java -jar target/dashboard-app-0.0.1-SNAPSHOT.jar --spring.profiles.active=loadtest
+ * mvn -P loadtest verify -Dloadtest.args="--mode=open --rate=200 --duration=2m --label=before"
+ * </pre>
+ *
+ * Prints throughput and p50/p95/p99/p99.9 per endpoint and writes the HdrHistogram interval
+ * log, percentile distributions and a CSV summary under {@code --report-dir}.
+ */
+public final class LoadTest {
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        Path reportDir = Path.of(options.reportDir);
+        Files.createDirectories(reportDir);
+
+        LatencyRecorder recorder = new LatencyRecorder(reportDir.resolve(options.label + ".hlog"));
+        LoadTestRun run = new LoadTestRun(options, recorder);
+
+        System.out.printf("%s loop against %s: %s, mix %s%n", options.mode.name().toLowerCase(), options.baseUrl,
+            options.mode == LoadTestOptions.Mode.CLOSED
+                ? options.users + " users, think time " + options.thinkTime.toMillis() + "ms"
+                : options.rate + " arrivals/s over " + options.sessions + " sessions",
+            LoadTestRun.describe(options.mix));
+        System.out.printf("Signing in %d sessions...%n", options.browsingSessions());
+        run.signIn();
+
+        List<Thread> threads = options.mode == LoadTestOptions.Mode.CLOSED
+            ? run.startClosedLoop()
+            : run.startOpenLoop();
+
+        System.out.printf("Warming up for %ds, then measuring for %ds%n",
+            options.warmup.toSeconds(), options.duration.toSeconds());
+        Thread.sleep(options.warmup.toMillis());
+        recorder.startMeasuring();
+
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        long intervalMillis = options.interval.toMillis();
+        sampler.scheduleAtFixedRate(recorder::sample, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        Thread.sleep(options.duration.toMillis());
+        sampler.shutdown();
+        sampler.awaitTermination(5, TimeUnit.SECONDS);
+
+        recorder.stopMeasuring();
+        run.stop(threads);
+        recorder.report(System.out, reportDir, options.label);
+        System.exit(0);
+    }
+}
@@ -0,0 +1,123 @@
+package com.themelyf.dashboard.loadtest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command line options, given as {@code --name=value}. Defaults match the data seeded by the
+ * application's {@code loadtest} profile.
+ */
+final class LoadTestOptions {
+
+    enum Mode {
+        // a fixed number of users, each sending its next request when the previous one returned
+        CLOSED,
+        // requests arrive at a fixed rate whether or not earlier ones have completed
+        OPEN
+    }
+
+    String baseUrl = "http://localhost:8080";
+    Mode mode = Mode.CLOSED;
+    int users = 50;
+    double rate = 100;
+    int sessions = 50;
+    int maxInFlight = 2000;
+    Duration duration = Duration.ofSeconds(60);
+    Duration warmup = Duration.ofSeconds(10);
+    Duration thinkTime = Duration.ofMillis(200);
+    Duration interval = Duration.ofSeconds(1);
+    Map<Scenario, Integer> mix = parseMix("browse=40,filter=20,search=25,edit=5,login=8,login-otp=2");
+    String password = "loadtest-password";
+    int userCount = 1000;
+    int otpUserCount = 200;
+    String otpSecret = "JBSWY3DPEHPK3PXPJBSWY3DPEHPK3PXP";
+    long maxItemId = 10_015;
+    long seed = 42;
+    String label = "run-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+    String reportDir = "target/loadtest-reports";
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+
+        LoadTestOptions options = new LoadTestOptions();
+        values.forEach((name, value) -> {
+            switch (name) {
+                case "base-url" -> options.baseUrl = value.replaceAll("/+$", "");
+                case "mode" -> options.mode = Mode.valueOf(value.toUpperCase(Locale.ROOT));
+                case "users" -> options.users = Integer.parseInt(value);
+                case "rate" -> options.rate = Double.parseDouble(value);
+                case "sessions" -> options.sessions = Integer.parseInt(value);
+                case "max-in-flight" -> options.maxInFlight = Integer.parseInt(value);
+                case "duration" -> options.duration = parseDuration(value);
+                case "warmup" -> options.warmup = parseDuration(value);
+                case "think-time" -> options.thinkTime = parseDuration(value);
+                case "interval" -> options.interval = parseDuration(value);
+                case "mix" -> options.mix = parseMix(value);
+                case "password" -> options.password = value;
+                case "user-count" -> options.userCount = Integer.parseInt(value);
+                case "otp-user-count" -> options.otpUserCount = Integer.parseInt(value);
+                case "otp-secret" -> options.otpSecret = value;
+                case "max-item-id" -> options.maxItemId = Long.parseLong(value);
+                case "seed" -> options.seed = Long.parseLong(value);
+                case "label" -> options.label = value;
+                case "report-dir" -> options.reportDir = value;
+                default -> throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        });
+
+        // Browsing sessions and login scenarios use separate accounts, so the per-user session
+        // limit never expires a session the harness is still browsing with
+        int browsingAccounts = options.mode == Mode.CLOSED ? options.users : options.sessions;
+        if (browsingAccounts >= options.userCount) {
+            throw new IllegalArgumentException("--user-count must be larger than the number of browsing sessions (" +
+                browsingAccounts + ")");
+        }
+        return options;
+    }
+
+    int browsingSessions() {
+        return mode == Mode.CLOSED ? users : sessions;
+    }
+
+    // 500ms, 30s, 2m
+    static Duration parseDuration(String value) {
+        String text = value.trim().toLowerCase(Locale.ROOT);
+        if (text.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2)));
+        }
+        long amount = Long.parseLong(text.substring(0, text.length() - 1));
+        return switch (text.charAt(text.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Unknown duration: " + value);
+        };
+    }
+
+    // browse=40,search=25: relative weights, scenarios left out never run
+    static Map<Scenario, Integer> parseMix(String value) {
+        Map<Scenario, Integer> mix = new EnumMap<>(Scenario.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split("=");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                mix.put(Scenario.fromName(parts[0].trim()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Empty scenario mix: " + value);
+        }
+        return mix;
+    }
+}
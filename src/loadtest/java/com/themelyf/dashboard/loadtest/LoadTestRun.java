@@ -0,0 +1,216 @@
+package com.themelyf.dashboard.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the scenario mix for one run. Closed loop: one thread per browsing session, each
+ * running a scenario, thinking, and running the next. Open loop: scenarios arrive as a
+ * Poisson process at {@code --rate} per second on a shared pool of signed-in sessions, and
+ * each is timed from its scheduled arrival, so a stalled server shows up as queueing delay
+ * instead of quietly lowering the offered load.
+ */
+final class LoadTestRun {
+
+    private static final int SIGN_IN_ATTEMPTS = 5;
+
+    private final LoadTestOptions options;
+
+    private final LatencyRecorder recorder;
+
+    private final Scenario[] scenarios;
+
+    private final int[] cumulativeWeights;
+
+    private final List<BrowserSession> sessions = new ArrayList<>();
+
+    private final Totp totp;
+
+    // Last TOTP step each OTP account signed in with; the server rejects a step used twice
+    private final AtomicLongArray otpLastStep;
+
+    private final AtomicInteger otpCursor = new AtomicInteger();
+
+    private final AtomicInteger loginCursor = new AtomicInteger();
+
+    private volatile boolean running = true;
+
+    LoadTestRun(LoadTestOptions options, LatencyRecorder recorder) {
+        this.options = options;
+        this.recorder = recorder;
+        this.totp = new Totp(options.otpSecret);
+        this.otpLastStep = new AtomicLongArray(options.otpUserCount);
+
+        scenarios = options.mix.keySet().toArray(new Scenario[0]);
+        cumulativeWeights = new int[scenarios.length];
+        int total = 0;
+        for (int i = 0; i < scenarios.length; i++) {
+            total += options.mix.get(scenarios[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    LoadTestOptions options() {
+        return options;
+    }
+
+    LatencyRecorder recorder() {
+        return recorder;
+    }
+
+    // Signs in loaduser0..n-1, the accounts the browsing scenarios use. The server sheds password
+    // checks beyond its hashing capacity (429), so a rejected sign-in is retried after a pause.
+    void signIn() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(2, options.browsingSessions()));
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < options.browsingSessions(); i++) {
+                BrowserSession session = newVisitor();
+                sessions.add(session);
+                String username = "loaduser" + i;
+                results.add(executor.submit(() -> {
+                    for (int attempt = 0; attempt < SIGN_IN_ATTEMPTS; attempt++) {
+                        if (session.login(username, options.password, System.nanoTime())) {
+                            return true;
+                        }
+                        Thread.sleep(TimeUnit.SECONDS.toMillis(1));
+                    }
+                    return false;
+                }));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                if (!results.get(i).get()) {
+                    throw new IllegalStateException("Could not sign in as loaduser" + i +
+                        "; is the application running with --spring.profiles.active=loadtest?");
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    List<Thread> startClosedLoop() {
+        List<Thread> threads = new ArrayList<>();
+        for (BrowserSession session : sessions) {
+            Thread thread = new Thread(() -> {
+                while (running) {
+                    nextScenario().run(this, session, System.nanoTime());
+                    think();
+                }
+            }, "loadtest-user-" + threads.size());
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        return threads;
+    }
+
+    List<Thread> startOpenLoop() {
+        ExecutorService workers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "loadtest-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore inFlight = new Semaphore(options.maxInFlight);
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / options.rate;
+
+        Thread scheduler = new Thread(() -> {
+            long next = System.nanoTime();
+            while (running) {
+                // Exponential gaps: arrivals are independent of each other, like real visitors
+                next += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanGapNanos);
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (!inFlight.tryAcquire()) {
+                    recorder.skip("arrivals over --max-in-flight");
+                    continue;
+                }
+                long arrival = next;
+                BrowserSession session = sessions.get(ThreadLocalRandom.current().nextInt(sessions.size()));
+                workers.execute(() -> {
+                    try {
+                        nextScenario().run(this, session, arrival);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            workers.shutdownNow();
+        }, "loadtest-scheduler");
+        scheduler.setDaemon(true);
+        scheduler.start();
+        return List.of(scheduler);
+    }
+
+    void stop(List<Thread> threads) throws InterruptedException {
+        running = false;
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(35));
+        }
+    }
+
+    BrowserSession newVisitor() {
+        return new BrowserSession(options.baseUrl, recorder);
+    }
+
+    long randomItemId() {
+        return ThreadLocalRandom.current().nextLong(1, options.maxItemId + 1);
+    }
+
+    // Accounts above the browsing ones, in rotation
+    String loginUsername() {
+        int browsing = options.browsingSessions();
+        int index = Math.floorMod(loginCursor.getAndIncrement(), options.userCount - browsing);
+        return "loaduser" + (browsing + index);
+    }
+
+    // Username and code of an OTP account that has not signed in during the current step, or null
+    String[] nextOtpLogin() {
+        long step = Totp.currentStep();
+        for (int attempt = 0; attempt < options.otpUserCount; attempt++) {
+            int index = Math.floorMod(otpCursor.getAndIncrement(), options.otpUserCount);
+            long last = otpLastStep.get(index);
+            if (last < step && otpLastStep.compareAndSet(index, last, step)) {
+                return new String[] {"loadotp" + index, totp.code(step)};
+            }
+        }
+        return null;
+    }
+
+    private Scenario nextScenario() {
+        int roll = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return scenarios[i];
+            }
+        }
+        return scenarios[scenarios.length - 1];
+    }
+
+    // Uniform between zero and twice --think-time, so users do not move in lockstep
+    private void think() {
+        long mean = options.thinkTime.toNanos();
+        if (mean > 0) {
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(2 * mean + 1));
+        }
+    }
+
+    static String describe(Map<Scenario, Integer> mix) {
+        StringBuilder text = new StringBuilder();
+        mix.forEach((scenario, weight) -> text.append(text.length() > 0 ? ", " : "")
+            .append(scenario.name().toLowerCase().replace('_', '-')).append('=').append(weight));
+        return text.toString();
+    }
+}
@@ -0,0 +1,107 @@
+package com.themelyf.dashboard.loadtest;
+
+import java.net.http.HttpResponse;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One user action, made of one or more requests. Browsing scenarios run in an already
+ * signed-in session; the login scenarios start a new visitor every time. The first request
+ * is timed from {@code startNanos}, which in open-loop mode is the scheduled arrival time.
+ */
+enum Scenario {
+
+    // dashboard, then one item
+    BROWSE {
+        @Override
+        void run(LoadTestRun run, BrowserSession session, long startNanos) {
+            session.get("dashboard", "/", startNanos);
+            session.get("item-view", "/item/" + run.randomItemId(), System.nanoTime());
+        }
+    },
+
+    FILTER {
+        @Override
+        void run(LoadTestRun run, BrowserSession session, long startNanos) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            String path = "/?category=" + pick(CATEGORIES) +
+                (random.nextBoolean() ? "&status=" + pick(STATUSES) : "") +
+                (random.nextInt(4) == 0 ? "&sort=asc" : "");
+            session.get("dashboard-filter", path, startNanos);
+        }
+    },
+
+    SEARCH {
+        @Override
+        void run(LoadTestRun run, BrowserSession session, long startNanos) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            // Mostly broad word terms, sometimes a narrow one that matches a few titles
+            String term = random.nextInt(5) == 0 ? String.valueOf(random.nextInt(10_000)) : pick(TERMS);
+            session.get("api-search", "/api/search?q=" + term, startNanos);
+        }
+    },
+
+    // edit form, then save with a changed title and status
+    EDIT {
+        @Override
+        void run(LoadTestRun run, BrowserSession session, long startNanos) {
+            long id = run.randomItemId();
+            HttpResponse<String> form = session.get("item-edit-form", "/item/" + id + "/edit", startNanos);
+            if (form == null || form.statusCode() != 200) {
+                return;
+            }
+            session.postForm("item-save", "/item/save", Map.of(
+                "id", String.valueOf(id),
+                "title", "Load test edit " + id + " " + pick(TERMS),
+                "description", "Edited by the load test harness",
+                "category", pick(CATEGORIES),
+                "status", pick(STATUSES)
+            ), System.nanoTime());
+        }
+    },
+
+    // login page and form login as a fresh visitor
+    LOGIN {
+        @Override
+        void run(LoadTestRun run, BrowserSession session, long startNanos) {
+            run.newVisitor().login(run.loginUsername(), run.options().password, startNanos);
+        }
+    },
+
+    // form login with the password and an authenticator code
+    LOGIN_OTP {
+        @Override
+        void run(LoadTestRun run, BrowserSession session, long startNanos) {
+            String[] account = run.nextOtpLogin();
+            if (account == null) {
+                // every OTP account has already used the current 30 second step
+                run.recorder().skip("login-otp (no unused TOTP step)");
+                return;
+            }
+            run.newVisitor().login("login-otp", account[0], run.options().password, account[1], startNanos);
+        }
+    };
+
+    private static final String[] CATEGORIES = {
+        "Project", "Task", "Security", "Documentation", "Optimization", "Testing",
+        "Integration", "Training", "Maintenance", "Analysis", "Migration", "Guidelines"
+    };
+
+    private static final String[] STATUSES = {"Active", "Pending", "Completed", "Scheduled", "Draft"};
+
+    private static final String[] TERMS = {
+        "alpha", "report", "migration", "review", "release", "customer", "pipeline", "audit",
+        "backlog", "metrics", "cache", "rollout", "incident", "roadmap", "quarterly", "budget"
+    };
+
+    abstract void run(LoadTestRun run, BrowserSession session, long startNanos);
+
+    static Scenario fromName(String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    private static String pick(String[] values) {
+        return values[ThreadLocalRandom.current().nextInt(values.length)];
+    }
+}
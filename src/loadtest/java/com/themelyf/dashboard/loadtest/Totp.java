@@ -0,0 +1,60 @@
+package com.themelyf.dashboard.loadtest;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+
+// RFC 6238 codes for the seeded OTP accounts, the same algorithm as the application's TotpService
+final class Totp {
+
+    static final long STEP_SECONDS = 30;
+
+    private static final String BASE32 = "ABCDEFGHIJKLMNOPQRSTUVWXYZ234567";
+
+    private final byte[] key;
+
+    Totp(String base32Secret) {
+        this.key = decodeBase32(base32Secret);
+    }
+
+    static long currentStep() {
+        return System.currentTimeMillis() / 1000 / STEP_SECONDS;
+    }
+
+    String code(long step) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA1");
+            mac.init(new SecretKeySpec(key, "HmacSHA1"));
+            byte[] hash = mac.doFinal(ByteBuffer.allocate(Long.BYTES).putLong(step).array());
+            int offset = hash[hash.length - 1] & 0x0f;
+            int binary = ((hash[offset] & 0x7f) << 24)
+                | ((hash[offset + 1] & 0xff) << 16)
+                | ((hash[offset + 2] & 0xff) << 8)
+                | (hash[offset + 3] & 0xff);
+            return String.format("%06d", binary % 1_000_000);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA1 not available", e);
+        }
+    }
+
+    private static byte[] decodeBase32(String encoded) {
+        String normalized = encoded.replace("=", "").toUpperCase();
+        ByteBuffer decoded = ByteBuffer.allocate(normalized.length() * 5 / 8);
+        int buffer = 0;
+        int bits = 0;
+        for (char c : normalized.toCharArray()) {
+            int value = BASE32.indexOf(c);
+            if (value < 0) {
+                throw new IllegalArgumentException("OTP secret is not Base32");
+            }
+            buffer = (buffer << 5) | value;
+            bits += 5;
+            if (bits >= 8) {
+                decoded.put((byte) (buffer >> (bits - 8)));
+                bits -= 8;
+            }
+        }
+        return decoded.array();
+    }
+}
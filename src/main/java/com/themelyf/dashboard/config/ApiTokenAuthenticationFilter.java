@@ -0,0 +1,54 @@
+package com.themelyf.dashboard.config;
+
+import com.themelyf.dashboard.model.ApiToken;
+import com.themelyf.dashboard.service.ApiTokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Authenticates /api/** requests that carry an "Authorization: Bearer" access token
+public class ApiTokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final ApiTokenService apiTokenService;
+
+    public ApiTokenAuthenticationFilter(ApiTokenService apiTokenService) {
+        this.apiTokenService = apiTokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        ApiToken token = apiTokenService.verify(header.substring(BEARER_PREFIX.length()).trim(), ApiToken.Type.ACCESS);
+        if (token == null) {
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"success\":false,\"message\":\"Invalid or expired access token\"}");
+            return;
+        }
+
+        // A fresh context for this request only, nothing is written to a session
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(token, null, token.getAuthorities()));
+        SecurityContextHolder.setContext(context);
+        chain.doFilter(request, response);
+    }
+}
@@ -1,28 +1,62 @@
 package com.themelyf.dashboard.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.Collection;
+import java.util.List;
+
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CacheSpecProperties.class)
 public class CacheConfig implements WebMvcConfigurer {
 
+    public static final List<String> CACHE_NAMES = List.of(
+        "dashboardItems", 
+        "itemPages", 
+        "dashboardItem",
+        "userDetails"
+    );
+
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager(
-            "dashboardItems", 
-            "dashboardItem", 
-            "itemsByCategory", 
-            "itemsByStatus", 
-            "searchResults", 
-            "categories", 
-            "statuses"
-        );
+    public CacheManager cacheManager(CacheSpecProperties properties) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(CACHE_NAMES.stream()
+            .map(name -> new CaffeineCache(name, buildCache(properties.specFor(name)).build(), true))
+            .toList());
+        return cacheManager;
+    }
+
+    private Caffeine<Object, Object> buildCache(CacheSpecProperties.Spec spec) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder();
+        
+        switch (spec.getEviction()) {
+            case SIZE -> builder.maximumSize(spec.getMaximumSize());
+            case WEIGHT -> builder
+                .maximumWeight(spec.getMaximumWeight())
+                .weigher((key, value) -> value instanceof Collection<?> collection ? Math.max(1, collection.size()) : 1);
+            case SOFT -> builder.softValues();
+        }
+        
+        if (spec.getExpireAfterWrite() != null) {
+            builder.expireAfterWrite(spec.getExpireAfterWrite());
+        }
+        if (spec.getExpireAfterAccess() != null) {
+            builder.expireAfterAccess(spec.getExpireAfterAccess());
+        }
+        if (spec.isRecordStats()) {
+            builder.recordStats();
+        }
+        
+        return builder;
     }
 
     @Override
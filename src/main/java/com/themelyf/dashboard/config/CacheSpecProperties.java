@@ -0,0 +1,69 @@
+package com.themelyf.dashboard.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheSpecProperties {
+
+    // Applied to any named cache that has no entry under app.cache.caches
+    private Spec defaults = new Spec();
+
+    private Map<String, Spec> caches = new LinkedHashMap<>();
+
+    public Spec specFor(String cacheName) {
+        Spec spec = caches.get(cacheName);
+        return spec != null ? spec : defaults;
+    }
+
+    public Spec getDefaults() { return defaults; }
+    public void setDefaults(Spec defaults) { this.defaults = defaults; }
+
+    public Map<String, Spec> getCaches() { return caches; }
+    public void setCaches(Map<String, Spec> caches) { this.caches = caches; }
+
+    public enum EvictionPolicy {
+        // Bounded by entry count (Window TinyLFU)
+        SIZE,
+        // Bounded by total weight, where a collection weighs one unit per element
+        WEIGHT,
+        // Unbounded, values are softly referenced and reclaimed under heap pressure
+        SOFT
+    }
+
+    public static class Spec {
+
+        private EvictionPolicy eviction = EvictionPolicy.SIZE;
+
+        private long maximumSize = 1000;
+
+        private long maximumWeight = 10000;
+
+        private Duration expireAfterWrite;
+
+        private Duration expireAfterAccess;
+
+        private boolean recordStats = true;
+
+        public EvictionPolicy getEviction() { return eviction; }
+        public void setEviction(EvictionPolicy eviction) { this.eviction = eviction; }
+
+        public long getMaximumSize() { return maximumSize; }
+        public void setMaximumSize(long maximumSize) { this.maximumSize = maximumSize; }
+
+        public long getMaximumWeight() { return maximumWeight; }
+        public void setMaximumWeight(long maximumWeight) { this.maximumWeight = maximumWeight; }
+
+        public Duration getExpireAfterWrite() { return expireAfterWrite; }
+        public void setExpireAfterWrite(Duration expireAfterWrite) { this.expireAfterWrite = expireAfterWrite; }
+
+        public Duration getExpireAfterAccess() { return expireAfterAccess; }
+        public void setExpireAfterAccess(Duration expireAfterAccess) { this.expireAfterAccess = expireAfterAccess; }
+
+        public boolean isRecordStats() { return recordStats; }
+        public void setRecordStats(boolean recordStats) { this.recordStats = recordStats; }
+    }
+}
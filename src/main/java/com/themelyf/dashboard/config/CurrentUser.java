@@ -0,0 +1,19 @@
+package com.themelyf.dashboard.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a handler method parameter to the signed-in user. Declare it as
+ * {@link com.themelyf.dashboard.model.CachedUserDetails} to read the principal without a
+ * query, or as {@link com.themelyf.dashboard.model.User} when the entity is needed; either
+ * is {@code null} for anonymous requests.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
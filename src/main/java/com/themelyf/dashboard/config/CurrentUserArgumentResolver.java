@@ -0,0 +1,34 @@
+package com.themelyf.dashboard.config;
+
+import com.themelyf.dashboard.model.CachedUserDetails;
+import com.themelyf.dashboard.model.User;
+import com.themelyf.dashboard.service.CurrentUserHolder;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final CurrentUserHolder currentUserHolder;
+
+    public CurrentUserArgumentResolver(CurrentUserHolder currentUserHolder) {
+        this.currentUserHolder = currentUserHolder;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        Class<?> type = parameter.getParameterType();
+        return parameter.hasParameterAnnotation(CurrentUser.class) &&
+               (type == User.class || type.isAssignableFrom(CachedUserDetails.class));
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        return parameter.getParameterType() == User.class
+            ? currentUserHolder.getUser()
+            : currentUserHolder.getPrincipal();
+    }
+}
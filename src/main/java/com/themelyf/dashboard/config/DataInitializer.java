@@ -2,6 +2,8 @@ package com.themelyf.dashboard.config;
 
 import com.themelyf.dashboard.model.DashboardItem;
 import com.themelyf.dashboard.repository.DashboardItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
@@ -12,6 +14,8 @@ import java.util.List;
 @Component
 public class DataInitializer implements CommandLineRunner {
 
+    private static final Logger log = LoggerFactory.getLogger(DataInitializer.class);
+
     @Autowired
     private DashboardItemRepository repository;
 
@@ -127,7 +131,7 @@ public class DataInitializer implements CommandLineRunner {
             );
 
             repository.saveAll(sampleItems);
-            System.out.println("Sample data initialized with " + sampleItems.size() + " items.");
+            log.info("Sample data initialized with {} items", sampleItems.size());
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+package com.themelyf.dashboard.config;
+
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Wraps a persistent session repository so that reading a session does not rewrite its
+ * row on every request. The last-accessed time is only passed on to the stored session
+ * once it has moved by the touch interval (capped at half the session timeout), so a
+ * request that changes no attributes usually saves nothing.
+ */
+public class LazyTouchSessionRepository<S extends Session>
+        implements FindByIndexNameSessionRepository<LazyTouchSessionRepository<S>.LazyTouchSession> {
+
+    private final FindByIndexNameSessionRepository<S> delegate;
+
+    private final Duration touchInterval;
+
+    public LazyTouchSessionRepository(FindByIndexNameSessionRepository<S> delegate, Duration touchInterval) {
+        this.delegate = delegate;
+        this.touchInterval = touchInterval;
+    }
+
+    @Override
+    public LazyTouchSession createSession() {
+        return new LazyTouchSession(delegate.createSession(), null);
+    }
+
+    @Override
+    public void save(LazyTouchSession session) {
+        delegate.save(session.delegate);
+    }
+
+    @Override
+    public LazyTouchSession findById(String id) {
+        S session = delegate.findById(id);
+        return session != null ? new LazyTouchSession(session, session.getLastAccessedTime()) : null;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        delegate.deleteById(id);
+    }
+
+    @Override
+    public Map<String, LazyTouchSession> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+        Map<String, LazyTouchSession> sessions = new LinkedHashMap<>();
+        delegate.findByIndexNameAndIndexValue(indexName, indexValue).forEach((id, session) ->
+            sessions.put(id, new LazyTouchSession(session, session.getLastAccessedTime())));
+        return sessions;
+    }
+
+    public final class LazyTouchSession implements Session {
+
+        private final S delegate;
+
+        // Last-accessed time as stored, null for a session that has not been saved yet
+        private final Instant storedLastAccessedTime;
+
+        private LazyTouchSession(S delegate, Instant storedLastAccessedTime) {
+            this.delegate = delegate;
+            this.storedLastAccessedTime = storedLastAccessedTime;
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            if (storedLastAccessedTime == null ||
+                !lastAccessedTime.isBefore(storedLastAccessedTime.plus(effectiveTouchInterval()))) {
+                delegate.setLastAccessedTime(lastAccessedTime);
+            }
+        }
+
+        private Duration effectiveTouchInterval() {
+            Duration halfTimeout = delegate.getMaxInactiveInterval().dividedBy(2);
+            return touchInterval.compareTo(halfTimeout) < 0 ? touchInterval : halfTimeout;
+        }
+
+        @Override
+        public String getId() {
+            return delegate.getId();
+        }
+
+        @Override
+        public String changeSessionId() {
+            return delegate.changeSessionId();
+        }
+
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return delegate.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return delegate.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            delegate.setAttribute(attributeName, attributeValue);
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            delegate.removeAttribute(attributeName);
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return delegate.getCreationTime();
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            delegate.setMaxInactiveInterval(interval);
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return delegate.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return delegate.isExpired();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.themelyf.dashboard.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Accounts and items for the load-test harness in {@code src/loadtest/java}, created only
+ * under the {@code loadtest} profile. Password accounts are {@code loaduser<n>}, accounts
+ * that sign in with an authenticator code are {@code loadotp<n>} and share one TOTP secret.
+ * Runs before the search index and facets are built, so they include the seeded items.
+ */
+@Component
+@Profile("loadtest")
+public class LoadTestDataSeeder implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestDataSeeder.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String[] CATEGORIES = {
+        "Project", "Task", "Security", "Documentation", "Optimization", "Testing",
+        "Integration", "Training", "Maintenance", "Analysis", "Migration", "Guidelines"
+    };
+
+    private static final String[] STATUSES = {"Active", "Pending", "Completed", "Scheduled", "Draft"};
+
+    private static final String[] WORDS = {
+        "alpha", "beta", "gamma", "delta", "report", "migration", "review", "dashboard", "release",
+        "customer", "pipeline", "security", "audit", "backlog", "planning", "metrics", "cache",
+        "database", "frontend", "backend", "rollout", "incident", "roadmap", "quarterly", "budget"
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${app.loadtest.users:1000}")
+    private int users;
+
+    @Value("${app.loadtest.otp-users:200}")
+    private int otpUsers;
+
+    @Value("${app.loadtest.items:10000}")
+    private int items;
+
+    @Value("${app.loadtest.password:loadtest-password}")
+    private String password;
+
+    @Value("${app.loadtest.otp-secret:JBSWY3DPEHPK3PXPJBSWY3DPEHPK3PXP}")
+    private String otpSecret;
+
+    @Value("${app.loadtest.seed:42}")
+    private long seed;
+
+    @Override
+    public void run(String... args) {
+        Integer existing = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM users WHERE username = 'loaduser0'", Integer.class);
+        if (existing != null && existing > 0) {
+            return;
+        }
+
+        // One BCrypt hash shared by every account, so seeding takes one hash instead of thousands
+        String hash = passwordEncoder.encode(password);
+        insertUsers("loaduser", users, hash, null);
+        insertUsers("loadotp", otpUsers, hash, otpSecret);
+        insertItems();
+        log.info("Load test data seeded: {} users, {} OTP users, {} items", users, otpUsers, items);
+    }
+
+    private void insertUsers(String prefix, int count, String hash, String secret) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[] {
+                prefix + i, prefix + i + "@loadtest.example", hash, "Load", "User " + i,
+                secret != null, secret, Timestamp.valueOf(now), Timestamp.valueOf(now)
+            });
+            if (rows.size() == BATCH_SIZE || i == count - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO users (username, email, password, first_name, last_name, " +
+                    "role, account_non_expired, account_non_locked, credentials_non_expired, enabled, " +
+                    "email_verified, phone_verified, two_factor_enabled, otp_secret, failed_login_attempts, " +
+                    "created_at, updated_at) " +
+                    "VALUES (?, ?, ?, ?, ?, 'USER', TRUE, TRUE, TRUE, TRUE, TRUE, FALSE, ?, ?, 0, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+
+    private void insertItems() {
+        Random random = new Random(seed);
+        LocalDateTime base = LocalDateTime.now().minusMinutes(items);
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < items; i++) {
+            Timestamp time = Timestamp.valueOf(base.plusMinutes(i));
+            rows.add(new Object[] {
+                sentence(random, 3) + " " + i,
+                sentence(random, 20),
+                CATEGORIES[random.nextInt(CATEGORIES.length)],
+                STATUSES[random.nextInt(STATUSES.length)],
+                time,
+                time
+            });
+            if (rows.size() == BATCH_SIZE || i == items - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO dashboard_items " +
+                    "(title, description, category, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.toString();
+    }
+}
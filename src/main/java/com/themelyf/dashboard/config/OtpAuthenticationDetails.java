@@ -0,0 +1,23 @@
+package com.themelyf.dashboard.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+/**
+ * Form login details that also carry the {@code otpCode} parameter, so the authentication
+ * provider can check the second factor after the password.
+ */
+public class OtpAuthenticationDetails extends WebAuthenticationDetails {
+
+    private final String otpCode;
+
+    public OtpAuthenticationDetails(HttpServletRequest request) {
+        super(request);
+        String code = request.getParameter("otpCode");
+        this.otpCode = code != null && !code.isBlank() ? code.trim() : null;
+    }
+
+    public String getOtpCode() {
+        return otpCode;
+    }
+}
@@ -0,0 +1,334 @@
+package com.themelyf.dashboard.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token-bucket throttling for the endpoints configured under {@code app.rate-limit.endpoints}.
+ * Each request takes one token from the bucket for its client IP and, when the endpoint names
+ * an account parameter, one from the bucket for that account. Buckets refill continuously and
+ * live in size-bounded maps that forget idle keys, so memory stays flat under address spraying.
+ * The client IP is {@code getRemoteAddr()}, which {@code server.forward-headers-strategy: native}
+ * resolves from X-Forwarded-For only when the request came through a trusted proxy. Rejections are
+ * counted as {@code rate.limit.rejected}, tagged by endpoint and reason.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    // Login and OTP requests are tiny; a larger JSON body is refused rather than let past the account limit
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+
+    // Bucket shared by requests that name no account, so leaving the parameter out never skips the limit
+    private static final String UNKNOWN_ACCOUNT = "";
+
+    private final ObjectMapper objectMapper;
+
+    private final boolean enabled;
+
+    private final List<LimitedEndpoint> endpoints = new ArrayList<>();
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.enabled = properties.isEnabled();
+        properties.getEndpoints().forEach((name, endpoint) -> {
+            LimitedEndpoint limited = new LimitedEndpoint(name, endpoint, properties.getMaxTrackedKeys());
+            endpoints.add(limited);
+            limited.registerMeters(meterRegistry);
+        });
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || match(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        LimitedEndpoint endpoint = match(request);
+        long now = System.nanoTime();
+
+        long waitNanos = endpoint.ipLimit != null
+            ? endpoint.ipLimit.tryConsume(request.getRemoteAddr(), now)
+            : 0;
+
+        HttpServletRequest forwarded = request;
+        if (waitNanos == 0 && endpoint.accountLimit != null) {
+            if (isJson(request)) {
+                forwarded = CachedBodyRequest.wrap(request);
+                if (forwarded == null) {
+                    endpoint.tooLarge.increment();
+                    rejectTooLarge(response);
+                    return;
+                }
+            }
+            String account = account(forwarded, endpoint.accountParameter);
+            waitNanos = endpoint.accountLimit.tryConsume(account != null ? account : UNKNOWN_ACCOUNT, now);
+        }
+
+        if (waitNanos > 0) {
+            reject(response, waitNanos);
+            return;
+        }
+
+        chain.doFilter(forwarded, response);
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (LimitedEndpoint endpoint : endpoints) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("path", endpoint.path);
+            if (endpoint.ipLimit != null) {
+                entry.put("perIp", endpoint.ipLimit.statistics());
+            }
+            if (endpoint.accountLimit != null) {
+                entry.put("perAccount", endpoint.accountLimit.statistics());
+            }
+            stats.put(endpoint.name, entry);
+        }
+        return stats;
+    }
+
+    private LimitedEndpoint match(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (LimitedEndpoint endpoint : endpoints) {
+            if (endpoint.path.equals(path) && endpoint.method.equalsIgnoreCase(request.getMethod())) {
+                return endpoint;
+            }
+        }
+        return null;
+    }
+
+    private String account(HttpServletRequest request, String parameter) {
+        String value = null;
+        if (request instanceof CachedBodyRequest cached) {
+            try {
+                JsonNode field = objectMapper.readTree(cached.body).get(parameter);
+                value = field != null && field.isTextual() ? field.asText() : null;
+            } catch (IOException e) {
+                // Malformed JSON is left for the controller to reject
+            }
+        } else {
+            value = request.getParameter(parameter);
+        }
+
+        // Case and surrounding spaces must not give an attacker a fresh bucket
+        return value != null && !value.isBlank() ? value.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static boolean isJson(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase(Locale.ROOT).contains("json");
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"success\":false,\"message\":\"Too many requests, please try again in " +
+            retryAfter + " seconds.\"}");
+    }
+
+    private static void rejectTooLarge(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"success\":false,\"message\":\"Request body is too large.\"}");
+    }
+
+    private static final class LimitedEndpoint {
+
+        final String name;
+        final String path;
+        final String method;
+        final String accountParameter;
+        final KeyedLimit ipLimit;
+        final KeyedLimit accountLimit;
+        final LongAdder tooLarge = new LongAdder();
+
+        LimitedEndpoint(String name, RateLimitProperties.Endpoint endpoint, long maxTrackedKeys) {
+            this.name = name;
+            this.path = endpoint.getPath();
+            this.method = endpoint.getMethod();
+            this.accountParameter = endpoint.getAccountParameter();
+            this.ipLimit = endpoint.getPerIp() != null
+                ? new KeyedLimit(endpoint.getPerIp(), maxTrackedKeys)
+                : null;
+            this.accountLimit = endpoint.getPerAccount() != null && accountParameter != null
+                ? new KeyedLimit(endpoint.getPerAccount(), maxTrackedKeys)
+                : null;
+        }
+
+        void registerMeters(MeterRegistry meterRegistry) {
+            if (ipLimit != null) {
+                rejectedCounter("per-ip", ipLimit.rejected, meterRegistry);
+            }
+            if (accountLimit != null) {
+                rejectedCounter("per-account", accountLimit.rejected, meterRegistry);
+                rejectedCounter("body-too-large", tooLarge, meterRegistry);
+            }
+        }
+
+        private void rejectedCounter(String reason, LongAdder count, MeterRegistry meterRegistry) {
+            FunctionCounter.builder("rate.limit.rejected", count, LongAdder::sum)
+                .tag("endpoint", name).tag("reason", reason).register(meterRegistry);
+        }
+    }
+
+    private static final class KeyedLimit {
+
+        final int capacity;
+        final double tokensPerNano;
+        final Cache<String, TokenBucket> buckets;
+        final LongAdder allowed = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+
+        KeyedLimit(RateLimitProperties.Limit limit, long maxTrackedKeys) {
+            this.capacity = limit.getCapacity();
+            this.tokensPerNano = (double) capacity / limit.getRefillPeriod().toNanos();
+            // An idle bucket is full again after one refill period, so forgetting it changes nothing
+            this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterAccess(limit.getRefillPeriod())
+                .build();
+        }
+
+        long tryConsume(String key, long now) {
+            long wait = buckets.get(key, k -> new TokenBucket(capacity, now)).tryConsume(capacity, tokensPerNano, now);
+            (wait == 0 ? allowed : rejected).increment();
+            return wait;
+        }
+
+        Map<String, Object> statistics() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("trackedKeys", buckets.estimatedSize());
+            stats.put("allowed", allowed.sum());
+            stats.put("rejected", rejected.sum());
+            return stats;
+        }
+    }
+
+    private static final class TokenBucket {
+
+        private record State(double tokens, long updatedAt) {}
+
+        private final AtomicReference<State> state;
+
+        TokenBucket(int capacity, long now) {
+            this.state = new AtomicReference<>(new State(capacity, now));
+        }
+
+        // Returns 0 when a token was taken, otherwise the nanoseconds until one is available
+        long tryConsume(int capacity, double tokensPerNano, long now) {
+            while (true) {
+                State current = state.get();
+                double tokens = Math.min(capacity, current.tokens() + Math.max(0, now - current.updatedAt()) * tokensPerNano);
+                if (tokens < 1) {
+                    return (long) Math.ceil((1 - tokens) / tokensPerNano);
+                }
+                if (state.compareAndSet(current, new State(tokens - 1, Math.max(now, current.updatedAt())))) {
+                    return 0;
+                }
+            }
+        }
+    }
+
+    // Buffers a small JSON body so it can be read here and again by the controller
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        // Null when the body is over MAX_BODY_BYTES; a chunked body has no length, so it is read up to one byte past the limit
+        static CachedBodyRequest wrap(HttpServletRequest request) throws IOException {
+            if (request.getContentLengthLong() > MAX_BODY_BYTES) {
+                return null;
+            }
+            byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+            return body.length <= MAX_BODY_BYTES ? new CachedBodyRequest(request, body) : null;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The whole body is already in memory, so it is available and complete at once
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            // isReady() is always true, so the listener reads until the body is finished
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body),
+                encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.themelyf.dashboard.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Upper bound on buckets kept per endpoint and key type, least recently used are dropped
+    private long maxTrackedKeys = 100000;
+
+    private Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public long getMaxTrackedKeys() { return maxTrackedKeys; }
+    public void setMaxTrackedKeys(long maxTrackedKeys) { this.maxTrackedKeys = maxTrackedKeys; }
+
+    public Map<String, Endpoint> getEndpoints() { return endpoints; }
+    public void setEndpoints(Map<String, Endpoint> endpoints) { this.endpoints = endpoints; }
+
+    public static class Endpoint {
+
+        private String path;
+
+        private String method = "POST";
+
+        // Form parameter or top-level JSON field naming the account, if any
+        private String accountParameter;
+
+        private Limit perIp;
+
+        private Limit perAccount;
+
+        public String getPath() { return path; }
+        public void setPath(String path) { this.path = path; }
+
+        public String getMethod() { return method; }
+        public void setMethod(String method) { this.method = method; }
+
+        public String getAccountParameter() { return accountParameter; }
+        public void setAccountParameter(String accountParameter) { this.accountParameter = accountParameter; }
+
+        public Limit getPerIp() { return perIp; }
+        public void setPerIp(Limit perIp) { this.perIp = perIp; }
+
+        public Limit getPerAccount() { return perAccount; }
+        public void setPerAccount(Limit perAccount) { this.perAccount = perAccount; }
+    }
+
+    // A bucket of capacity tokens that refills completely over refillPeriod
+    public static class Limit {
+
+        private int capacity = 10;
+
+        private Duration refillPeriod = Duration.ofMinutes(1);
+
+        public int getCapacity() { return capacity; }
+        public void setCapacity(int capacity) { this.capacity = capacity; }
+
+        public Duration getRefillPeriod() { return refillPeriod; }
+        public void setRefillPeriod(Duration refillPeriod) { this.refillPeriod = refillPeriod; }
+    }
+}
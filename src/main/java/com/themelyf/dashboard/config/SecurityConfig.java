@@ -1,41 +1,97 @@
 package com.themelyf.dashboard.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.themelyf.dashboard.model.CachedUserDetails;
+import com.themelyf.dashboard.service.ApiTokenService;
+import com.themelyf.dashboard.service.AuthenticationService;
+import com.themelyf.dashboard.service.BoundedPasswordEncoder;
+import com.themelyf.dashboard.service.LoginAttemptTracker;
+import com.themelyf.dashboard.service.PasswordHashingRejectedException;
 import com.themelyf.dashboard.service.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsChecker;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.AuthenticationFailureHandler;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.savedrequest.NullRequestCache;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties(RateLimitProperties.class)
 @EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
 
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    // BCrypt(12) costs ~250ms of CPU, so hashing gets its own bounded pool instead of request threads
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder(
+            @Value("${app.security.password-hashing.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int threads,
+            @Value("${app.security.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${app.security.password-hashing.max-wait:3s}") Duration maxWait,
+            MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(12), threads, queueCapacity, maxWait,
+            meterRegistry);
     }
 
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder,
+                                                            LoginAttemptTracker loginAttemptTracker,
+                                                            AuthenticationService authenticationService) {
+        UserDetailsChecker accountStatusChecks = new AccountStatusUserDetailsChecker();
+        
+        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider() {
+            // After the password: two-factor accounts, and logins from the OTP tab, also need a valid code
+            @Override
+            protected void additionalAuthenticationChecks(UserDetails userDetails,
+                                                          UsernamePasswordAuthenticationToken authentication) {
+                super.additionalAuthenticationChecks(userDetails, authentication);
+                String otpCode = authentication.getDetails() instanceof OtpAuthenticationDetails details
+                    ? details.getOtpCode() : null;
+                if (userDetails instanceof CachedUserDetails user && (user.twoFactorEnabled() || otpCode != null)) {
+                    authenticationService.checkSecondFactor(user.id(), otpCode);
+                }
+            }
+        };
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        // In-memory lockouts are checked before any password hashing is spent on the attempt
+        authProvider.setPreAuthenticationChecks(user -> {
+            loginAttemptTracker.checkAllowed(user.getUsername());
+            accountStatusChecks.check(user);
+        });
         authProvider.setHideUserNotFoundExceptions(false);
         return authProvider;
     }
@@ -60,6 +116,14 @@ public class SecurityConfig {
     @Bean
     public AuthenticationFailureHandler authenticationFailureHandler() {
         return (request, response, exception) -> {
+            if (exception instanceof PasswordHashingRejectedException) {
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                response.setContentType("text/plain;charset=UTF-8");
+                response.getWriter().write(exception.getMessage());
+                return;
+            }
+            
             String username = request.getParameter("username");
             String errorMessage = "Invalid username or password";
             
@@ -69,6 +133,8 @@ public class SecurityConfig {
                 errorMessage = "Account is disabled";
             } else if (exception.getMessage().contains("expired")) {
                 errorMessage = "Account has expired";
+            } else if (exception.getMessage().contains("OTP")) {
+                errorMessage = "Invalid or missing OTP code";
             }
             
             response.sendRedirect("/login?error=true&message=" + 
@@ -78,23 +144,96 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public RateLimitFilter rateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper,
+                                           MeterRegistry meterRegistry) {
+        return new RateLimitFilter(properties, objectMapper, meterRegistry);
+    }
+
+    // Runs inside the security filter chain only, not a second time as a servlet filter
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    @Bean
+    public ApiTokenAuthenticationFilter apiTokenAuthenticationFilter(ApiTokenService apiTokenService) {
+        return new ApiTokenAuthenticationFilter(apiTokenService);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ApiTokenAuthenticationFilter> apiTokenAuthenticationFilterRegistration(
+            ApiTokenAuthenticationFilter apiTokenAuthenticationFilter) {
+        FilterRegistrationBean<ApiTokenAuthenticationFilter> registration =
+            new FilterRegistrationBean<>(apiTokenAuthenticationFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    // JSON endpoints: bearer tokens, no CSRF, and nothing is ever written to a session. A
+    // browser that already has a session is still recognised, the context is only read
+    @Bean
+    @Order(1)
+    public SecurityFilterChain apiFilterChain(HttpSecurity http, RateLimitFilter rateLimitFilter,
+                                              ApiTokenAuthenticationFilter apiTokenAuthenticationFilter) throws Exception {
+        HttpSessionSecurityContextRepository sessionContextRepository = new HttpSessionSecurityContextRepository();
+        sessionContextRepository.setAllowSessionCreation(false);
+        
         http
+            .securityMatcher("/api/**")
+            .addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterAfter(apiTokenAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+            
+            .authorizeHttpRequests(authz -> authz
+                .requestMatchers(
+                    "/api/public/**",
+                    "/api/auth/token", "/api/auth/token/refresh",
+                    "/api/auth/send-otp", "/api/auth/verify-otp"
+                ).permitAll()
+                .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                .requestMatchers("/api/moderate/**").hasAnyRole("MODERATOR", "ADMIN")
+                .anyRequest().authenticated()
+            )
+            
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .securityContext(context -> context.securityContextRepository(sessionContextRepository))
+            .requestCache(cache -> cache.requestCache(new NullRequestCache()))
+            .csrf(csrf -> csrf.disable())
+            
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint((request, response, e) -> {
+                    response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+                    writeJsonError(response, HttpStatus.UNAUTHORIZED, "Authentication required");
+                })
+                .accessDeniedHandler((request, response, e) ->
+                    writeJsonError(response, HttpStatus.FORBIDDEN, "Access denied"))
+            );
+
+        return http.build();
+    }
+
+    @Bean
+    public SecurityFilterChain filterChain(HttpSecurity http, RateLimitFilter rateLimitFilter,
+                                           SessionRegistry sessionRegistry) throws Exception {
+        http
+            // Throttle login, OTP and reset requests before any authentication work is done
+            .addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class)
+            
             .authorizeHttpRequests(authz -> authz
                 // Public endpoints
                 .requestMatchers(
                     "/login", "/register", "/forgot-password", "/reset-password",
                     "/verify-otp", "/resend-otp",
                     "/css/**", "/js/**", "/images/**", "/sw.js",
-                    "/h2-console/**",
-                    "/api/public/**"
+                    "/h2-console/**"
                 ).permitAll()
                 
                 // Admin only endpoints
-                .requestMatchers("/admin/**", "/api/admin/**").hasRole("ADMIN")
+                .requestMatchers("/admin/**").hasRole("ADMIN")
                 
                 // Moderator and Admin endpoints
-                .requestMatchers("/moderate/**", "/api/moderate/**").hasAnyRole("MODERATOR", "ADMIN")
+                .requestMatchers("/moderate/**").hasAnyRole("MODERATOR", "ADMIN")
                 
                 // All other requests require authentication
                 .anyRequest().authenticated()
@@ -105,6 +244,7 @@ public class SecurityConfig {
                 .loginProcessingUrl("/login")
                 .usernameParameter("username")
                 .passwordParameter("password")
+                .authenticationDetailsSource(OtpAuthenticationDetails::new)
                 .successHandler(authenticationSuccessHandler())
                 .failureHandler(authenticationFailureHandler())
                 .permitAll()
@@ -128,6 +268,7 @@ public class SecurityConfig {
             .sessionManagement(session -> session
                 .maximumSessions(3)
                 .maxSessionsPreventsLogin(false)
+                .sessionRegistry(sessionRegistry)
                 .and()
                 .sessionFixation().migrateSession()
             )
@@ -147,9 +288,16 @@ public class SecurityConfig {
             )
             
             .csrf(csrf -> csrf
-                .ignoringRequestMatchers("/h2-console/**", "/api/**")
+                .ignoringRequestMatchers("/h2-console/**")
             );
 
         return http.build();
     }
+
+    private static void writeJsonError(HttpServletResponse response, HttpStatus status, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"success\":false,\"message\":\"" + message + "\"}");
+    }
 }
\ No newline at end of file
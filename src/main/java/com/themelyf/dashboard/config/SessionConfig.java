@@ -0,0 +1,66 @@
+package com.themelyf.dashboard.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.session.JdbcSessionDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.session.JdbcSessionProperties;
+import org.springframework.boot.autoconfigure.session.SessionProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+import org.springframework.session.config.SessionRepositoryCustomizer;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.session.jdbc.config.annotation.web.http.EnableJdbcHttpSession;
+import org.springframework.session.security.SpringSessionBackedSessionRegistry;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Sessions live in the {@code SPRING_SESSION} tables, so any node can serve any request and
+ * the concurrent-session limit counts sessions across all nodes. Declaring the repository
+ * ourselves turns off Boot's session auto-configuration, so the {@code spring.session.jdbc}
+ * settings and schema initialization are applied here.
+ */
+@Configuration
+@EnableJdbcHttpSession
+@EnableConfigurationProperties(JdbcSessionProperties.class)
+public class SessionConfig {
+
+    @Bean
+    public SessionRepositoryCustomizer<JdbcIndexedSessionRepository> jdbcSessionRepositoryCustomizer(
+            JdbcSessionProperties jdbcProperties, SessionProperties sessionProperties) {
+        return repository -> {
+            repository.setTableName(jdbcProperties.getTableName());
+            repository.setFlushMode(jdbcProperties.getFlushMode());
+            repository.setSaveMode(jdbcProperties.getSaveMode());
+            repository.setCleanupCron(jdbcProperties.getCleanupCron());
+            if (sessionProperties.getTimeout() != null) {
+                repository.setDefaultMaxInactiveInterval(sessionProperties.getTimeout());
+            }
+        };
+    }
+
+    @Bean
+    public JdbcSessionDataSourceScriptDatabaseInitializer jdbcSessionDataSourceScriptDatabaseInitializer(
+            DataSource dataSource, JdbcSessionProperties properties) {
+        return new JdbcSessionDataSourceScriptDatabaseInitializer(dataSource, properties);
+    }
+
+    // Primary so the session repository filter goes through the lazy touch
+    @Bean
+    @Primary
+    public LazyTouchSessionRepository<?> lazyTouchSessionRepository(
+            JdbcIndexedSessionRepository sessionRepository,
+            @Value("${app.session.touch-interval:60s}") Duration touchInterval) {
+        return new LazyTouchSessionRepository<>(sessionRepository, touchInterval);
+    }
+
+    @Bean
+    public SpringSessionBackedSessionRegistry<? extends Session> sessionRegistry(
+            FindByIndexNameSessionRepository<? extends Session> sessionRepository) {
+        return new SpringSessionBackedSessionRegistry<>(sessionRepository);
+    }
+}
@@ -0,0 +1,137 @@
+package com.themelyf.dashboard.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.themelyf.dashboard.config.RateLimitFilter;
+import com.themelyf.dashboard.service.ApiTokenService;
+import com.themelyf.dashboard.service.BoundedPasswordEncoder;
+import com.themelyf.dashboard.service.DashboardFacetService;
+import com.themelyf.dashboard.service.EmailOutboxDispatcher;
+import com.themelyf.dashboard.service.LoginAttemptTracker;
+import com.themelyf.dashboard.service.OtpCodeStore;
+import com.themelyf.dashboard.service.SmsDispatcher;
+import com.themelyf.dashboard.service.TotpService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Controller
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private DashboardFacetService facetService;
+
+    @Autowired
+    private EmailOutboxDispatcher emailOutboxDispatcher;
+
+    @Autowired
+    private SmsDispatcher smsDispatcher;
+
+    @Autowired
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @Autowired
+    private LoginAttemptTracker loginAttemptTracker;
+
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Autowired
+    private OtpCodeStore otpCodeStore;
+
+    @Autowired
+    private TotpService totpService;
+
+    @Autowired
+    private ApiTokenService apiTokenService;
+
+    @GetMapping("/caches")
+    @ResponseBody
+    public Map<String, Object> cacheStatistics() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (!(cache instanceof CaffeineCache caffeineCache)) {
+                continue;
+            }
+            
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = caffeineCache.getNativeCache();
+            CacheStats stats = nativeCache.stats();
+            
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("size", nativeCache.estimatedSize());
+            entry.put("hitCount", stats.hitCount());
+            entry.put("missCount", stats.missCount());
+            entry.put("hitRate", stats.hitRate());
+            entry.put("evictionCount", stats.evictionCount());
+            entry.put("evictionWeight", stats.evictionWeight());
+            response.put(name, entry);
+        }
+        
+        return response;
+    }
+
+    @GetMapping("/facets/verify")
+    @ResponseBody
+    public Map<String, Object> verifyFacets(@RequestParam(defaultValue = "false") boolean repair) {
+        return facetService.verify(repair);
+    }
+
+    @GetMapping("/email-outbox")
+    @ResponseBody
+    public Map<String, Object> emailOutboxStatistics() {
+        return emailOutboxDispatcher.getStatistics();
+    }
+
+    @GetMapping("/sms")
+    @ResponseBody
+    public Map<String, Object> smsStatistics() {
+        return smsDispatcher.getStatistics();
+    }
+
+    @GetMapping("/password-hashing")
+    @ResponseBody
+    public Map<String, Object> passwordHashingStatistics() {
+        return passwordEncoder.getStatistics();
+    }
+
+    @GetMapping("/login-attempts")
+    @ResponseBody
+    public Map<String, Object> loginAttemptStatistics() {
+        return loginAttemptTracker.getStatistics();
+    }
+
+    @GetMapping("/rate-limits")
+    @ResponseBody
+    public Map<String, Object> rateLimitStatistics() {
+        return rateLimitFilter.getStatistics();
+    }
+
+    @GetMapping("/otp")
+    @ResponseBody
+    public Map<String, Object> otpStatistics() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("codes", otpCodeStore.getStatistics());
+        response.put("totp", totpService.getStatistics());
+        return response;
+    }
+
+    @GetMapping("/api-tokens")
+    @ResponseBody
+    public Map<String, Object> apiTokenStatistics() {
+        return apiTokenService.getStatistics();
+    }
+}
@@ -1,17 +1,24 @@
 package com.themelyf.dashboard.controller;
 
+import com.themelyf.dashboard.config.CurrentUser;
+import com.themelyf.dashboard.model.ApiToken;
+import com.themelyf.dashboard.model.CachedUserDetails;
 import com.themelyf.dashboard.model.User;
+import com.themelyf.dashboard.service.ApiTokenService;
 import com.themelyf.dashboard.service.AuthenticationService;
+import com.themelyf.dashboard.service.PasswordHashingRejectedException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpServletResponse;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -21,6 +28,9 @@ public class AuthController {
     @Autowired
     private AuthenticationService authenticationService;
 
+    @Autowired
+    private ApiTokenService apiTokenService;
+
     @GetMapping("/login")
     public String loginPage(@RequestParam(value = "error", required = false) String error,
                            @RequestParam(value = "logout", required = false) String logout,
@@ -48,10 +58,16 @@ public class AuthController {
     }
 
     @PostMapping("/register")
-    public String registerUser(@ModelAttribute User user, Model model) {
+    public String registerUser(@ModelAttribute User user, Model model, HttpServletResponse response) {
         try {
             authenticationService.registerUser(user);
             return "redirect:/login?registered=true";
+        } catch (PasswordHashingRejectedException e) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            model.addAttribute("error", e.getMessage());
+            model.addAttribute("user", user);
+            return "register";
         } catch (Exception e) {
             model.addAttribute("error", e.getMessage());
             model.addAttribute("user", user);
@@ -111,6 +127,8 @@ public class AuthController {
             }
             
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingRejectedException e) {
+            return tooManyRequests(response, e);
         } catch (Exception e) {
             response.put("success", false);
             response.put("message", "An error occurred. Please try again.");
@@ -126,11 +144,11 @@ public class AuthController {
     @PostMapping("/change-password")
     @ResponseBody
     public ResponseEntity<Map<String, Object>> changePassword(@RequestBody Map<String, String> request,
-                                                             Authentication authentication) {
+                                                             @CurrentUser CachedUserDetails currentUser) {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            User currentUser = authenticationService.getCurrentUser();
+            // The principal is enough here, changePassword loads the row it is about to update
             if (currentUser == null) {
                 response.put("success", false);
                 response.put("message", "User not authenticated");
@@ -141,7 +159,7 @@ public class AuthController {
             String newPassword = request.get("newPassword");
             
             boolean success = authenticationService.changePassword(
-                currentUser.getId(), currentPassword, newPassword);
+                currentUser.id(), currentPassword, newPassword);
             
             if (success) {
                 response.put("success", true);
@@ -152,6 +170,8 @@ public class AuthController {
             }
             
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingRejectedException e) {
+            return tooManyRequests(response, e);
         } catch (RuntimeException e) {
             response.put("success", false);
             response.put("message", e.getMessage());
@@ -163,74 +183,102 @@ public class AuthController {
         }
     }
 
-    // OTP API endpoints
+    // OTP login, step one: the password is checked first, then a code is sent (or, for "app",
+    // expected from the authenticator app) and a short-lived challenge token is returned
     @PostMapping("/api/auth/send-otp")
     @ResponseBody
     public ResponseEntity<Map<String, Object>> sendOtp(@RequestBody Map<String, String> request) {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            String username = request.get("username");
             String method = request.get("method");
+            CachedUserDetails user = authenticationService.startOtpLogin(
+                request.get("username"), request.get("password"), method);
             
-            boolean success = authenticationService.sendOtp(username, method);
-            
-            if (success) {
-                response.put("success", true);
-                response.put("message", "OTP sent successfully");
-            } else {
-                response.put("success", false);
-                response.put("message", "Failed to send OTP. Please check your username and try again.");
-            }
-            
+            response.put("success", true);
+            response.put("message", "app".equalsIgnoreCase(method)
+                ? "Enter the code from your authenticator app" : "OTP sent successfully");
+            response.putAll(apiTokenService.challenge(user));
             return ResponseEntity.ok(response);
-        } catch (Exception e) {
+        } catch (PasswordHashingRejectedException e) {
+            return tooManyRequests(response, e);
+        } catch (AuthenticationException e) {
             response.put("success", false);
-            response.put("message", "An error occurred. Please try again.");
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
             return ResponseEntity.badRequest().body(response);
         }
     }
 
+    // OTP login, step two: only a code that comes with the challenge from step one is accepted,
+    // and the login completes with bearer tokens as /api/auth/token does
     @PostMapping("/api/auth/verify-otp")
     @ResponseBody
-    public ResponseEntity<Map<String, Object>> verifyOtp(@RequestBody Map<String, String> request,
-                                                        HttpServletRequest httpRequest) {
+    public ResponseEntity<Map<String, Object>> verifyOtp(@RequestBody Map<String, String> request) {
         Map<String, Object> response = new HashMap<>();
         
+        ApiToken challenge = apiTokenService.verify(request.get("challengeToken"), ApiToken.Type.CHALLENGE);
+        if (challenge == null) {
+            response.put("success", false);
+            response.put("message", "Sign in with your password first");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        
         try {
-            String username = request.get("username");
-            String otpCode = request.get("otpCode");
+            Authentication auth = authenticationService.completeOtpLogin(challenge.userId(), request.get("otpCode"));
             
-            // First verify the OTP
-            boolean otpValid = authenticationService.verifyOtp(username, otpCode);
-            
-            if (otpValid) {
-                // If OTP is valid, authenticate the user
-                Authentication auth = authenticationService.authenticateUser(username, null, otpCode);
-                
-                if (auth != null && auth.isAuthenticated()) {
-                    // Create session
-                    HttpSession session = httpRequest.getSession(true);
-                    session.setAttribute("SPRING_SECURITY_CONTEXT", 
-                        org.springframework.security.core.context.SecurityContextHolder.getContext());
-                    
-                    response.put("success", true);
-                    response.put("message", "Login successful");
-                    response.put("redirectUrl", "/dashboard");
-                } else {
-                    response.put("success", false);
-                    response.put("message", "Authentication failed");
-                }
-            } else {
-                response.put("success", false);
-                response.put("message", "Invalid or expired OTP code");
-            }
+            response.put("success", true);
+            response.putAll(apiTokenService.issue((CachedUserDetails) auth.getPrincipal()));
+            return ResponseEntity.ok(response);
+        } catch (LockedException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        } catch (AuthenticationException e) {
+            response.put("success", false);
+            response.put("message", "Invalid or expired OTP code");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+    }
+
+    // Bearer tokens for API clients; the /api/** chain verifies them without a session
+    @PostMapping("/api/auth/token")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> issueToken(@RequestBody Map<String, String> request) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            Authentication auth = authenticationService.authenticateUser(
+                request.get("username"), request.get("password"), request.get("otpCode"));
             
+            response.put("success", true);
+            response.putAll(apiTokenService.issue((CachedUserDetails) auth.getPrincipal()));
             return ResponseEntity.ok(response);
-        } catch (Exception e) {
+        } catch (PasswordHashingRejectedException e) {
+            return tooManyRequests(response, e);
+        } catch (AuthenticationException e) {
             response.put("success", false);
-            response.put("message", "An error occurred during authentication");
-            return ResponseEntity.badRequest().body(response);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+    }
+
+    @PostMapping("/api/auth/token/refresh")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> refreshToken(@RequestBody Map<String, String> request) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            response.put("success", true);
+            response.putAll(apiTokenService.refresh(request.get("refreshToken")));
+            return ResponseEntity.ok(response);
+        } catch (AuthenticationException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
         }
     }
 
@@ -244,4 +292,13 @@ public class AuthController {
         authenticationService.logout();
         return "redirect:/login?logout=true";
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<Map<String, Object>> tooManyRequests(Map<String, Object> response,
+                                                               PasswordHashingRejectedException e) {
+        response.put("success", false);
+        response.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(response);
+    }
+}
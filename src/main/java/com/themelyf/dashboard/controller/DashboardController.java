@@ -1,14 +1,21 @@
 package com.themelyf.dashboard.controller;
 
 import com.themelyf.dashboard.model.DashboardItem;
+import com.themelyf.dashboard.model.ItemFilter;
+import com.themelyf.dashboard.model.ItemPage;
 import com.themelyf.dashboard.service.DashboardService;
+import com.themelyf.dashboard.service.ItemVersionTracker;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
 import java.util.Optional;
 
 @Controller
@@ -18,27 +25,31 @@ public class DashboardController {
     @Autowired
     private DashboardService dashboardService;
     
+    @Autowired
+    private ItemVersionTracker versionTracker;
+    
     @GetMapping
     public String dashboard(Model model,
                           @RequestParam(required = false) String search,
                           @RequestParam(required = false) String category,
-                          @RequestParam(required = false) String status) {
+                          @RequestParam(required = false) String status,
+                          @RequestParam(required = false) String cursor,
+                          @RequestParam(required = false) Integer size,
+                          @RequestParam(defaultValue = "desc") String sort) {
         
-        List<DashboardItem> items;
+        int pageSize = dashboardService.resolvePageSize(size);
+        Sort.Direction direction = Sort.Direction.fromOptionalString(sort).orElse(Sort.Direction.DESC);
+        ItemPage page = dashboardService.findItems(ItemFilter.of(search, category, status), cursor, pageSize, direction);
         
-        if (search != null && !search.trim().isEmpty()) {
-            items = dashboardService.searchItems(search);
-        } else if (category != null && !category.trim().isEmpty()) {
-            items = dashboardService.getItemsByCategory(category);
-        } else if (status != null && !status.trim().isEmpty()) {
-            items = dashboardService.getItemsByStatus(status);
-        } else {
-            items = dashboardService.getAllItems();
-        }
-        
-        model.addAttribute("items", items);
+        model.addAttribute("items", page.items());
+        model.addAttribute("page", page);
+        model.addAttribute("currentCursor", cursor);
+        model.addAttribute("currentSize", size);
+        model.addAttribute("currentSort", direction.name().toLowerCase());
         model.addAttribute("categories", dashboardService.getAllCategories());
         model.addAttribute("statuses", dashboardService.getAllStatuses());
+        model.addAttribute("categoryCounts", dashboardService.getCategoryCounts());
+        model.addAttribute("statusCounts", dashboardService.getStatusCounts());
         model.addAttribute("totalCount", dashboardService.getTotalCount());
         model.addAttribute("currentSearch", search);
         model.addAttribute("currentCategory", category);
@@ -50,7 +61,15 @@ public class DashboardController {
     }
     
     @GetMapping("/item/{id}")
-    public String viewItem(@PathVariable Long id, Model model) {
+    public String viewItem(@PathVariable Long id, Model model, ServletWebRequest request) {
+        // The page carries the signed-in user's name and CSRF token, so a copy is only reused for the same session
+        HttpServletResponse response = request.getResponse();
+        if (response != null) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.COOKIE);
+        }
+        if (notModified(request)) {
+            return null;
+        }
         Optional<DashboardItem> item = dashboardService.getItemById(id);
         if (item.isPresent()) {
             model.addAttribute("item", item.get());
@@ -95,8 +114,19 @@ public class DashboardController {
     
     @GetMapping("/api/search")
     @ResponseBody
-    public List<DashboardItem> searchApi(@RequestParam String q) {
-        return dashboardService.searchItems(q);
+    public ItemPage searchApi(@RequestParam String q,
+                              @RequestParam(required = false) String category,
+                              @RequestParam(required = false) String status,
+                              @RequestParam(required = false) String cursor,
+                              @RequestParam(required = false) Integer size,
+                              @RequestParam(defaultValue = "desc") String sort,
+                              ServletWebRequest request) {
+        if (notModified(request)) {
+            return null;
+        }
+        int pageSize = dashboardService.resolvePageSize(size);
+        Sort.Direction direction = Sort.Direction.fromOptionalString(sort).orElse(Sort.Direction.DESC);
+        return dashboardService.findItems(ItemFilter.of(q, category, status), cursor, pageSize, direction);
     }
     
     @GetMapping("/components")
@@ -111,4 +141,14 @@ public class DashboardController {
         model.addAttribute("content", "form-examples");
         return "form-examples";
     }
+    
+    // The ETag comes from this node's item data version, so a 304 is sent before anything is queried or
+    // rendered. no-cache instead of the default no-store lets the browser keep the response and revalidate it
+    private boolean notModified(ServletWebRequest request) {
+        HttpServletResponse response = request.getResponse();
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        }
+        return request.checkNotModified(versionTracker.etag());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.themelyf.dashboard.controller;
+
+import com.themelyf.dashboard.model.ItemBulkRequest;
+import com.themelyf.dashboard.model.ItemImportResult;
+import com.themelyf.dashboard.service.DashboardBulkService;
+import com.themelyf.dashboard.service.DashboardImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Controller
+@RequestMapping("/api/moderate/items")
+public class ModerationController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @Autowired
+    private DashboardImportService importService;
+
+    @Autowired
+    private DashboardBulkService bulkService;
+
+    // The body is streamed, not buffered, so uploads of any size are accepted
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> importItems(HttpServletRequest request) throws IOException {
+        DashboardImportService.Format format = NDJSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()))
+            ? DashboardImportService.Format.NDJSON
+            : DashboardImportService.Format.CSV;
+        Map<String, Object> response = new LinkedHashMap<>();
+
+        try {
+            ItemImportResult result = importService.importItems(request.getInputStream(), format);
+            response.put("success", result.completed());
+            response.put("imported", result.imported());
+            response.put("rejected", result.rejected());
+            response.put("errors", result.errors());
+            response.put("elapsedMs", result.elapsedMs());
+            if (!result.completed()) {
+                response.put("message", "Import stopped early: " + result.failure());
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            }
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @PostMapping("/bulk-update")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> bulkUpdate(@RequestBody ItemBulkRequest request) {
+        Map<String, Object> response = new LinkedHashMap<>();
+
+        try {
+            int affected = bulkService.update(request);
+            response.put("success", true);
+            response.put("affected", affected);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @PostMapping("/bulk-delete")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> bulkDelete(@RequestBody ItemBulkRequest request) {
+        Map<String, Object> response = new LinkedHashMap<>();
+
+        try {
+            int affected = bulkService.delete(request);
+            response.put("success", true);
+            response.put("affected", affected);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.themelyf.dashboard.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.List;
+import java.util.Map;
+
+// Local stand-in for a bulk SMS gateway, the target of HttpSmsProvider in development; off unless
+// app.sms.stub.enabled is set, which only the dev profile does
+@Controller
+@RequestMapping("/api/public/sms-stub")
+@ConditionalOnProperty(name = "app.sms.stub.enabled", havingValue = "true")
+public class SmsStubController {
+
+    private static final Logger log = LoggerFactory.getLogger(SmsStubController.class);
+
+    // Simulated gateway latency per request
+    @Value("${app.sms.stub.latency-ms:0}")
+    private long latencyMs;
+
+    @PostMapping("/messages")
+    @ResponseBody
+    public Map<String, Object> receive(@RequestBody Map<String, Object> request) throws InterruptedException {
+        if (latencyMs > 0) {
+            Thread.sleep(latencyMs);
+        }
+
+        // Message bodies carry one-time codes, so only the count is logged
+        List<?> messages = (List<?>) request.getOrDefault("messages", List.of());
+        log.debug("SMS stub accepted {} messages from {}", messages.size(), request.get("senderId"));
+
+        return Map.of("accepted", messages.size());
+    }
+}
@@ -0,0 +1,35 @@
+package com.themelyf.dashboard.model;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+
+// Claims of a verified API bearer token; used as the principal of token-authenticated requests.
+// The id is only set on refresh tokens, which are single-use
+public record ApiToken(Long userId,
+                       String username,
+                       User.Role role,
+                       Type type,
+                       Instant expiresAt,
+                       long version,
+                       String id) implements AuthenticatedPrincipal {
+
+    public enum Type {
+        ACCESS,
+        REFRESH,
+        // Proves the password was checked for a login that still needs its OTP code
+        CHALLENGE
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+}
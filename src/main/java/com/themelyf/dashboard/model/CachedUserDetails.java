@@ -0,0 +1,84 @@
+package com.themelyf.dashboard.model;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+// Immutable snapshot of the security-relevant columns of a User, safe to share between requests
+public record CachedUserDetails(Long id,
+                                String username,
+                                String email,
+                                String password,
+                                User.Role role,
+                                boolean accountNonExpired,
+                                boolean accountNonLocked,
+                                boolean credentialsNonExpired,
+                                boolean enabled,
+                                boolean twoFactorEnabled,
+                                long tokenVersion) implements UserDetails {
+
+    public static CachedUserDetails of(User user) {
+        return new CachedUserDetails(
+            user.getId(),
+            user.getUsername(),
+            user.getEmail(),
+            user.getPassword(),
+            user.getRole(),
+            user.isAccountNonExpired(),
+            user.isAccountNonLocked(),
+            user.isCredentialsNonExpired(),
+            user.isEnabled(),
+            user.isTwoFactorEnabled(),
+            user.getTokenVersion()
+        );
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return accountNonExpired;
+    }
+
+    // Evaluated when the snapshot was taken, snapshots of temporarily locked users are never cached
+    @Override
+    public boolean isAccountNonLocked() {
+        return accountNonLocked;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return credentialsNonExpired;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Logins are looked up by username or email, both must match exactly as the database would
+    public boolean matchesLogin(String login) {
+        return username.equals(login) || email.equals(login);
+    }
+
+    @Override
+    public String toString() {
+        return "CachedUserDetails[id=" + id + ", username=" + username + ", role=" + role + "]";
+    }
+}
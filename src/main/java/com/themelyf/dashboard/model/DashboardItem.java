@@ -4,11 +4,17 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "dashboard_items")
+@Table(name = "dashboard_items", indexes = {
+    @Index(name = "idx_dashboard_items_updated_id", columnList = "updated_at, id"),
+    @Index(name = "idx_dashboard_items_category_status_updated", columnList = "category, status, updated_at"),
+    @Index(name = "idx_dashboard_items_status_updated", columnList = "status, updated_at")
+})
 public class DashboardItem {
     
+    // A block of 50 ids per sequence call (pooled-lo), so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "dashboard_items_seq")
+    @SequenceGenerator(name = "dashboard_items_seq", sequenceName = "dashboard_items_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -49,6 +55,17 @@ public class DashboardItem {
         this.status = status;
     }
     
+    // Detached copy, so the state before a merge survives the persistence context updating the original
+    public DashboardItem(DashboardItem other) {
+        this.id = other.id;
+        this.title = other.title;
+        this.description = other.description;
+        this.category = other.category;
+        this.status = other.status;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+    }
+    
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     
@@ -0,0 +1,106 @@
+package com.themelyf.dashboard.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "email_outbox", indexes = {
+    @Index(name = "idx_email_outbox_status_next_attempt", columnList = "status, next_attempt_at")
+})
+public class EmailOutboxMessage {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String recipient;
+    
+    @Column(name = "sender")
+    private String sender;
+    
+    @Column(nullable = false)
+    private String subject;
+    
+    @Column(columnDefinition = "TEXT")
+    private String body;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status = Status.PENDING;
+    
+    @Column(nullable = false)
+    private int attempts = 0;
+    
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+    
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+    
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+    
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    public enum Status {
+        PENDING, SENDING, SENT, FAILED
+    }
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+    
+    public EmailOutboxMessage() {}
+    
+    public EmailOutboxMessage(String sender, String recipient, String subject, String body) {
+        this.sender = sender;
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+    }
+    
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getRecipient() { return recipient; }
+    public void setRecipient(String recipient) { this.recipient = recipient; }
+    
+    public String getSender() { return sender; }
+    public void setSender(String sender) { this.sender = sender; }
+    
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+    
+    public String getBody() { return body; }
+    public void setBody(String body) { this.body = body; }
+    
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+    
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+    
+    public LocalDateTime getClaimedAt() { return claimedAt; }
+    public void setClaimedAt(LocalDateTime claimedAt) { this.claimedAt = claimedAt; }
+    
+    public LocalDateTime getSentAt() { return sentAt; }
+    public void setSentAt(LocalDateTime sentAt) { this.sentAt = sentAt; }
+    
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,61 @@
+package com.themelyf.dashboard.model;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Immutable snapshot of the total item count and the per-category and per-status counts
+public record FacetCounts(long total, Map<String, Long> categories, Map<String, Long> statuses) {
+
+    public static final FacetCounts EMPTY = new FacetCounts(0, Map.of(), Map.of());
+
+    public FacetCounts {
+        categories = Collections.unmodifiableMap(new TreeMap<>(categories));
+        statuses = Collections.unmodifiableMap(new TreeMap<>(statuses));
+    }
+
+    public FacetCounts added(DashboardItem item) {
+        return new FacetCounts(total + 1,
+            adjust(categories, item.getCategory(), 1),
+            adjust(statuses, item.getStatus(), 1));
+    }
+
+    // One copy of the maps for a whole batch instead of one per item
+    public FacetCounts addedAll(Collection<DashboardItem> items) {
+        Map<String, Long> categoryCounts = new TreeMap<>(categories);
+        Map<String, Long> statusCounts = new TreeMap<>(statuses);
+        for (DashboardItem item : items) {
+            categoryCounts.merge(item.getCategory(), 1L, Long::sum);
+            statusCounts.merge(item.getStatus(), 1L, Long::sum);
+        }
+        return new FacetCounts(total + items.size(), categoryCounts, statusCounts);
+    }
+
+    public FacetCounts removed(DashboardItem item) {
+        return new FacetCounts(total - 1,
+            adjust(categories, item.getCategory(), -1),
+            adjust(statuses, item.getStatus(), -1));
+    }
+
+    public FacetCounts changed(DashboardItem previous, DashboardItem current) {
+        Map<String, Long> categoryCounts = adjust(adjust(categories, previous.getCategory(), -1), current.getCategory(), 1);
+        Map<String, Long> statusCounts = adjust(adjust(statuses, previous.getStatus(), -1), current.getStatus(), 1);
+        return new FacetCounts(total, categoryCounts, statusCounts);
+    }
+
+    private static Map<String, Long> adjust(Map<String, Long> counts, String value, long delta) {
+        if (value == null) {
+            return counts;
+        }
+        
+        Map<String, Long> adjusted = new TreeMap<>(counts);
+        long count = adjusted.getOrDefault(value, 0L) + delta;
+        if (count > 0) {
+            adjusted.put(value, count);
+        } else {
+            adjusted.remove(value);
+        }
+        return adjusted;
+    }
+}
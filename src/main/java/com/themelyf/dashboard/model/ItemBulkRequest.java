@@ -0,0 +1,15 @@
+package com.themelyf.dashboard.model;
+
+import java.util.List;
+
+// Bulk change selecting items by ids or by filter; category and status are the new values for an update
+public record ItemBulkRequest(List<Long> ids, ItemFilter filter, String category, String status) {
+
+    public boolean hasIds() {
+        return ids != null && !ids.isEmpty();
+    }
+
+    public boolean hasFilter() {
+        return filter != null;
+    }
+}
@@ -0,0 +1,46 @@
+package com.themelyf.dashboard.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Comparator;
+
+// Keyset position of an item in (updatedAt, id) order, encoded as an opaque URL-safe token
+public record ItemCursor(LocalDateTime updatedAt, Long id) implements Comparable<ItemCursor> {
+
+    private static final Comparator<ItemCursor> ORDER = Comparator
+        .comparing(ItemCursor::updatedAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+        .thenComparing(ItemCursor::id, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    public static ItemCursor of(DashboardItem item) {
+        return new ItemCursor(item.getUpdatedAt(), item.getId());
+    }
+
+    public static ItemCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf('|');
+            return new ItemCursor(
+                LocalDateTime.parse(decoded.substring(0, separator)),
+                Long.parseLong(decoded.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            // A tampered or stale cursor just restarts from the first page
+            return null;
+        }
+    }
+
+    public String encode() {
+        String raw = updatedAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public int compareTo(ItemCursor other) {
+        return ORDER.compare(this, other);
+    }
+}
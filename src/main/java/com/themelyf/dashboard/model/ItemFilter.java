@@ -0,0 +1,50 @@
+package com.themelyf.dashboard.model;
+
+import java.util.Locale;
+
+// Normalized dashboard filter; blank values mean "any", search is matched case-insensitively
+public record ItemFilter(String search, String category, String status) {
+
+    public static final ItemFilter NONE = new ItemFilter(null, null, null);
+
+    public static ItemFilter of(String search, String category, String status) {
+        String term = normalize(search);
+        return new ItemFilter(
+            term != null ? term.toLowerCase(Locale.ROOT) : null,
+            normalize(category),
+            normalize(status)
+        );
+    }
+
+    public boolean hasSearch() {
+        return search != null;
+    }
+
+    public boolean matches(DashboardItem item) {
+        if (category != null && !category.equals(item.getCategory())) {
+            return false;
+        }
+        if (status != null && !status.equals(item.getStatus())) {
+            return false;
+        }
+        if (search == null) {
+            return true;
+        }
+        // LIKE wildcards can't be evaluated here, so treat such terms as matching
+        if (search.contains("%") || search.contains("_")) {
+            return true;
+        }
+        return contains(item.getTitle()) || contains(item.getDescription()) || contains(item.getCategory());
+    }
+
+    private boolean contains(String value) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(search);
+    }
+
+    private static String normalize(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        return value.trim();
+    }
+}
@@ -0,0 +1,11 @@
+package com.themelyf.dashboard.model;
+
+import java.util.List;
+
+// Outcome of a bulk import; failure is set when the import stopped early, rows committed before it stay
+public record ItemImportResult(long imported, long rejected, List<String> errors, long elapsedMs, String failure) {
+
+    public boolean completed() {
+        return failure == null;
+    }
+}
@@ -0,0 +1,50 @@
+package com.themelyf.dashboard.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.domain.Sort;
+
+import java.util.Comparator;
+import java.util.List;
+
+public record ItemPage(List<DashboardItem> items,
+                       String nextCursor,
+                       boolean hasNext,
+                       int size,
+                       Sort.Direction sort,
+                       @JsonIgnore ItemFilter filter,
+                       @JsonIgnore ItemCursor start,
+                       @JsonIgnore ItemCursor end) {
+
+    // rows holds up to size + 1 items already ordered and positioned after start
+    public static ItemPage of(List<DashboardItem> rows, ItemFilter filter, ItemCursor start, int size, Sort.Direction direction) {
+        boolean hasNext = rows.size() > size;
+        List<DashboardItem> items = hasNext ? List.copyOf(rows.subList(0, size)) : List.copyOf(rows);
+        ItemCursor end = items.isEmpty() ? null : ItemCursor.of(items.get(items.size() - 1));
+        return new ItemPage(items, hasNext ? end.encode() : null, hasNext, size, direction, filter, start, end);
+    }
+
+    // Keyset page over an already materialised result, e.g. a search index hit list
+    public static ItemPage slice(List<DashboardItem> all, ItemFilter filter, ItemCursor start, int size, Sort.Direction direction) {
+        Comparator<ItemCursor> order = direction.isAscending() ? Comparator.naturalOrder() : Comparator.reverseOrder();
+        List<DashboardItem> rows = all.stream()
+            .filter(filter::matches)
+            .filter(item -> start == null || order.compare(ItemCursor.of(item), start) > 0)
+            .sorted((a, b) -> order.compare(ItemCursor.of(a), ItemCursor.of(b)))
+            .limit(size + 1L)
+            .toList();
+        return of(rows, filter, start, size, direction);
+    }
+
+    // Whether writing this item (in its old or new state) can change the page
+    public boolean isAffectedBy(DashboardItem item) {
+        return filter.matches(item) && covers(ItemCursor.of(item));
+    }
+
+    // Whether an item at this position falls inside the keyset window this page was read from
+    public boolean covers(ItemCursor position) {
+        Comparator<ItemCursor> order = sort.isAscending() ? Comparator.naturalOrder() : Comparator.reverseOrder();
+        boolean afterStart = start == null || order.compare(position, start) > 0;
+        boolean notAfterEnd = !hasNext || order.compare(position, end) <= 0;
+        return afterStart && notAfterEnd;
+    }
+}
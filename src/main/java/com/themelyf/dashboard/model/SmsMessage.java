@@ -0,0 +1,19 @@
+package com.themelyf.dashboard.model;
+
+public record SmsMessage(String to, String text, Priority priority, int attempt) {
+
+    public enum Priority {
+        // Login codes, always drained before notifications
+        OTP,
+        // Welcome and password reset notices
+        NOTIFICATION
+    }
+
+    public static SmsMessage of(String to, String text, Priority priority) {
+        return new SmsMessage(to, text, priority, 1);
+    }
+
+    public SmsMessage retry() {
+        return new SmsMessage(to, text, priority, attempt + 1);
+    }
+}
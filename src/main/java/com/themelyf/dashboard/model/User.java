@@ -8,12 +8,19 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_password_reset_token", columnList = "password_reset_token"),
+    @Index(name = "idx_users_account_locked_until", columnList = "account_locked_until"),
+    @Index(name = "idx_users_last_login", columnList = "last_login"),
+    @Index(name = "idx_users_failed_login_attempts", columnList = "failed_login_attempts"),
+    @Index(name = "idx_users_created_at", columnList = "created_at")
+})
 public class User implements UserDetails {
     
     @Id
@@ -95,12 +102,20 @@ public class User implements UserDetails {
     @Column(name = "account_locked_until")
     private LocalDateTime accountLockedUntil;
     
+    // Claimed by every API token; moved on to revoke all of them
+    @Column(name = "token_version", nullable = false)
+    private long tokenVersion = 0;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    public static final int MAX_FAILED_LOGIN_ATTEMPTS = 5;
+    
+    public static final Duration LOCKOUT_DURATION = Duration.ofMinutes(30);
+    
     public enum Role {
         USER, ADMIN, MODERATOR
     }
@@ -195,8 +210,8 @@ public class User implements UserDetails {
     
     public void incrementFailedLoginAttempts() {
         this.failedLoginAttempts++;
-        if (this.failedLoginAttempts >= 5) {
-            this.accountLockedUntil = LocalDateTime.now().plusMinutes(30);
+        if (this.failedLoginAttempts >= MAX_FAILED_LOGIN_ATTEMPTS) {
+            this.accountLockedUntil = LocalDateTime.now().plus(LOCKOUT_DURATION);
         }
     }
     
@@ -205,6 +220,10 @@ public class User implements UserDetails {
         this.accountLockedUntil = null;
     }
     
+    public void revokeApiTokens() {
+        this.tokenVersion++;
+    }
+    
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -266,6 +285,9 @@ public class User implements UserDetails {
     public LocalDateTime getAccountLockedUntil() { return accountLockedUntil; }
     public void setAccountLockedUntil(LocalDateTime accountLockedUntil) { this.accountLockedUntil = accountLockedUntil; }
     
+    public long getTokenVersion() { return tokenVersion; }
+    public void setTokenVersion(long tokenVersion) { this.tokenVersion = tokenVersion; }
+    
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     
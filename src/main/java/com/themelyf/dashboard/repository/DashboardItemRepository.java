@@ -2,14 +2,27 @@ package com.themelyf.dashboard.repository;
 
 import com.themelyf.dashboard.model.DashboardItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface DashboardItemRepository extends JpaRepository<DashboardItem, Long> {
+public interface DashboardItemRepository extends JpaRepository<DashboardItem, Long>, JpaSpecificationExecutor<DashboardItem> {
+    
+    // Same predicate as DashboardItemSpecifications.matching, for the bulk statements; null parameters match anything
+    String MATCHING_FILTER = "(:category IS NULL OR d.category = :category) AND " +
+                             "(:status IS NULL OR d.status = :status) AND " +
+                             "(:pattern IS NULL OR LOWER(d.title) LIKE :pattern OR " +
+                             "LOWER(d.description) LIKE :pattern OR LOWER(d.category) LIKE :pattern)";
+    
+    String SET_CHANGES = "SET d.category = COALESCE(CAST(:newCategory AS String), d.category), " +
+                         "d.status = COALESCE(CAST(:newStatus AS String), d.status), d.updatedAt = :now ";
     
     List<DashboardItem> findByCategory(String category);
     
@@ -26,4 +39,37 @@ public interface DashboardItemRepository extends JpaRepository<DashboardItem, Lo
     
     @Query("SELECT DISTINCT d.status FROM DashboardItem d ORDER BY d.status")
     List<String> findAllStatuses();
+    
+    @Query("SELECT d.category AS value, COUNT(d) AS count FROM DashboardItem d GROUP BY d.category")
+    List<FacetCount> countByCategory();
+    
+    @Query("SELECT d.status AS value, COUNT(d) AS count FROM DashboardItem d GROUP BY d.status")
+    List<FacetCount> countByStatus();
+    
+    // Null new values leave the column as it is
+    @Modifying
+    @Query("UPDATE DashboardItem d " + SET_CHANGES + "WHERE d.id IN :ids")
+    int updateByIdIn(@Param("ids") Collection<Long> ids,
+                     @Param("newCategory") String newCategory,
+                     @Param("newStatus") String newStatus,
+                     @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE DashboardItem d " + SET_CHANGES + "WHERE " + MATCHING_FILTER)
+    int updateMatching(@Param("category") String category,
+                       @Param("status") String status,
+                       @Param("pattern") String pattern,
+                       @Param("newCategory") String newCategory,
+                       @Param("newStatus") String newStatus,
+                       @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("DELETE FROM DashboardItem d WHERE d.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Modifying
+    @Query("DELETE FROM DashboardItem d WHERE " + MATCHING_FILTER)
+    int deleteMatching(@Param("category") String category,
+                       @Param("status") String status,
+                       @Param("pattern") String pattern);
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.themelyf.dashboard.repository;
+
+import com.themelyf.dashboard.model.DashboardItem;
+import com.themelyf.dashboard.model.ItemCursor;
+import com.themelyf.dashboard.model.ItemFilter;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class DashboardItemSpecifications {
+
+    private DashboardItemSpecifications() {}
+
+    // Applies every set part of the filter in one WHERE clause
+    public static Specification<DashboardItem> matching(ItemFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            
+            if (filter.category() != null) {
+                predicates.add(cb.equal(root.get("category"), filter.category()));
+            }
+            if (filter.status() != null) {
+                predicates.add(cb.equal(root.get("status"), filter.status()));
+            }
+            if (filter.hasSearch()) {
+                String pattern = "%" + filter.search() + "%";
+                predicates.add(cb.or(
+                    cb.like(cb.lower(root.get("title")), pattern),
+                    cb.like(cb.lower(root.get("description")), pattern),
+                    cb.like(cb.lower(root.get("category")), pattern)
+                ));
+            }
+            
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // Rows strictly after the cursor in (updatedAt, id) order
+    public static Specification<DashboardItem> after(ItemCursor cursor, Sort.Direction direction) {
+        return (root, query, cb) -> {
+            if (cursor == null) {
+                return cb.conjunction();
+            }
+            
+            Path<LocalDateTime> updatedAt = root.get("updatedAt");
+            Path<Long> id = root.get("id");
+            
+            if (direction.isAscending()) {
+                return cb.or(
+                    cb.greaterThan(updatedAt, cursor.updatedAt()),
+                    cb.and(cb.equal(updatedAt, cursor.updatedAt()), cb.greaterThan(id, cursor.id()))
+                );
+            }
+            return cb.or(
+                cb.lessThan(updatedAt, cursor.updatedAt()),
+                cb.and(cb.equal(updatedAt, cursor.updatedAt()), cb.lessThan(id, cursor.id()))
+            );
+        };
+    }
+
+    public static Sort keysetOrder(Sort.Direction direction) {
+        return Sort.by(direction, "updatedAt").and(Sort.by(direction, "id"));
+    }
+}
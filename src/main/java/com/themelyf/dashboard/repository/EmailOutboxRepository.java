@@ -0,0 +1,57 @@
+package com.themelyf.dashboard.repository;
+
+import com.themelyf.dashboard.model.EmailOutboxMessage;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long> {
+    
+    // Row locks keep two nodes from claiming the same messages
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM EmailOutboxMessage m WHERE m.status = 'PENDING' AND m.nextAttemptAt <= :now ORDER BY m.id")
+    List<EmailOutboxMessage> findDue(@Param("now") LocalDateTime now, Pageable limit);
+    
+    long countByStatus(EmailOutboxMessage.Status status);
+    
+    @Query("SELECT MIN(m.createdAt) FROM EmailOutboxMessage m WHERE m.status = 'PENDING'")
+    LocalDateTime findOldestPendingCreatedAt();
+    
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.status = 'SENDING', m.claimedAt = :now, m.attempts = m.attempts + 1 " +
+           "WHERE m.id IN :ids")
+    int markSending(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.status = 'SENT', m.sentAt = :sentAt, m.lastError = NULL " +
+           "WHERE m.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+    
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.status = :status, m.nextAttemptAt = :nextAttemptAt, m.lastError = :error " +
+           "WHERE m.id = :id")
+    int markFailed(@Param("id") Long id,
+                   @Param("status") EmailOutboxMessage.Status status,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("error") String error);
+    
+    // Messages left in SENDING by a crashed worker go back to the queue
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.status = 'PENDING', m.nextAttemptAt = :now " +
+           "WHERE m.status = 'SENDING' AND m.claimedAt < :claimedBefore")
+    int releaseStale(@Param("claimedBefore") LocalDateTime claimedBefore, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("DELETE FROM EmailOutboxMessage m WHERE m.status = 'SENT' AND m.sentAt < :sentBefore")
+    int deleteSentBefore(@Param("sentBefore") LocalDateTime sentBefore);
+}
@@ -0,0 +1,8 @@
+package com.themelyf.dashboard.repository;
+
+public interface FacetCount {
+
+    String getValue();
+
+    long getCount();
+}
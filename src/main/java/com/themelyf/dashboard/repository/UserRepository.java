@@ -51,6 +51,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("UPDATE User u SET u.failedLoginAttempts = 0, u.accountLockedUntil = NULL WHERE u.id = :userId")
     void resetFailedLoginAttempts(@Param("userId") Long userId);
     
+    // Successful login: one statement for last login and the failure counter
+    @Modifying
+    @Query("UPDATE User u SET u.lastLogin = :lastLogin, u.failedLoginAttempts = 0, u.accountLockedUntil = NULL " +
+           "WHERE u.id = :userId")
+    int recordLoginSuccess(@Param("userId") Long userId, @Param("lastLogin") LocalDateTime lastLogin);
+    
     @Modifying
     @Query("UPDATE User u SET u.password = :password WHERE u.id = :userId")
     void updatePassword(@Param("userId") Long userId, @Param("password") String password);
@@ -0,0 +1,286 @@
+package com.themelyf.dashboard.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.themelyf.dashboard.model.ApiToken;
+import com.themelyf.dashboard.model.CachedUserDetails;
+import com.themelyf.dashboard.model.User;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Issues and verifies compact bearer tokens for the {@code /api/**} chain. A token is the
+ * base64url JSON claims (user id, username, role, type, expiry, token version) and a base64url
+ * HMAC-SHA256 of them. Verification checks the claimed version against the account in the
+ * user details cache, so a password change or reset revokes every token of the user. That cache
+ * is per node: the node making the change evicts the account at once, other nodes accept the old
+ * tokens until their entry expires ({@code app.cache.caches.userDetails.expire-after-write}).
+ * Access tokens are short-lived; refresh tokens are single-use and replaced on every refresh.
+ */
+@Component
+public class ApiTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(ApiTokenService.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private static final String[] CLAIMS = {"uid", "sub", "role", "typ", "exp", "ver"};
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private LoginAttemptTracker loginAttemptTracker;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Must be set, and the same on every node, for tokens to survive restarts and load balancing
+    @Value("${app.security.api-token.secret:}")
+    private String secret;
+
+    // Set by the prod profile, where a random per-node key would break tokens across nodes
+    @Value("${app.security.api-token.require-secret:false}")
+    private boolean requireSecret;
+
+    @Value("${app.security.api-token.access-ttl:15m}")
+    private Duration accessTtl;
+
+    @Value("${app.security.api-token.refresh-ttl:7d}")
+    private Duration refreshTtl;
+
+    @Value("${app.security.api-token.challenge-ttl:5m}")
+    private Duration challengeTtl;
+
+    private SecretKeySpec key;
+
+    // Mac instances are not thread-safe, so idle ones initialized with the key are pooled. Not kept
+    // per thread: a virtual thread lives for one request and would initialize a new Mac every time
+    private final Queue<Mac> macs = new ConcurrentLinkedQueue<>();
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final LongAdder issued = new LongAdder();
+
+    private final LongAdder verified = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            if (requireSecret) {
+                throw new IllegalStateException("app.security.api-token.secret (API_TOKEN_SECRET) must be set");
+            }
+            keyBytes = new byte[32];
+            random.nextBytes(keyBytes);
+            log.warn("app.security.api-token.secret is not set, API tokens will not survive a restart");
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        key = new SecretKeySpec(keyBytes, ALGORITHM);
+    }
+
+    public Map<String, Object> issue(CachedUserDetails user) {
+        Instant now = Instant.now();
+        Map<String, Object> tokens = new LinkedHashMap<>();
+        tokens.put("tokenType", "Bearer");
+        tokens.put("accessToken", sign(user, ApiToken.Type.ACCESS, now.plus(accessTtl)));
+        tokens.put("expiresIn", accessTtl.toSeconds());
+        tokens.put("refreshToken", sign(user, ApiToken.Type.REFRESH, now.plus(refreshTtl)));
+        issued.increment();
+        return tokens;
+    }
+
+    // Handed out by the first step of an OTP login and exchanged, with the code, for issue()
+    public Map<String, Object> challenge(CachedUserDetails user) {
+        Map<String, Object> challenge = new LinkedHashMap<>();
+        challenge.put("challengeToken", sign(user, ApiToken.Type.CHALLENGE, Instant.now().plus(challengeTtl)));
+        challenge.put("expiresIn", challengeTtl.toSeconds());
+        return challenge;
+    }
+
+    // Returns null for a token that is malformed, forged, expired, of the wrong type, or revoked
+    public ApiToken verify(String token, ApiToken.Type expectedType) {
+        ApiToken verifiedToken = parse(token);
+        if (verifiedToken == null || verifiedToken.type() != expectedType ||
+            !Instant.now().isBefore(verifiedToken.expiresAt()) || currentAccount(verifiedToken) == null) {
+            rejected.increment();
+            return null;
+        }
+        verified.increment();
+        return verifiedToken;
+    }
+
+    // The refresh token is spent and a new pair is issued. A spent token presented again was
+    // copied, so every token of the account is revoked and the owner has to sign in again
+    public Map<String, Object> refresh(String refreshToken) {
+        ApiToken token = verify(refreshToken, ApiToken.Type.REFRESH);
+        CachedUserDetails user = token != null && token.id() != null ? currentAccount(token) : null;
+        if (user == null) {
+            throw new BadCredentialsException("Invalid or expired refresh token");
+        }
+        loginAttemptTracker.checkAllowed(user.username());
+
+        if (!markUsed(token)) {
+            authenticationService.revokeApiTokens(user.id());
+            log.warn("Refresh token for user {} was used twice, all API tokens of the user are revoked", user.id());
+            throw new BadCredentialsException("Refresh token has already been used");
+        }
+        return issue(user);
+    }
+
+    // Used ids only have to be kept until the tokens would have expired anyway
+    @Scheduled(fixedDelayString = "${app.security.api-token.purge-interval-ms:600000}")
+    public void purgeUsedRefreshTokens() {
+        jdbcTemplate.update("DELETE FROM used_refresh_tokens WHERE expires_at < ?", Timestamp.from(Instant.now()));
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("issued", issued.sum());
+        stats.put("verified", verified.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("accessTtlSeconds", accessTtl.toSeconds());
+        return stats;
+    }
+
+    private String sign(CachedUserDetails user, ApiToken.Type type, Instant expiresAt) {
+        ObjectNode claims = objectMapper.createObjectNode();
+        claims.put("uid", user.id());
+        claims.put("sub", user.username());
+        claims.put("role", user.role().name());
+        claims.put("typ", type.name());
+        claims.put("exp", expiresAt.getEpochSecond());
+        claims.put("ver", user.tokenVersion());
+        if (type == ApiToken.Type.REFRESH) {
+            byte[] id = new byte[16];
+            random.nextBytes(id);
+            claims.put("jti", ENCODER.encodeToString(id));
+        }
+
+        String payload;
+        try {
+            payload = ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode token claims", e);
+        }
+        return payload + "." + ENCODER.encodeToString(mac(payload));
+    }
+
+    private ApiToken parse(String token) {
+        int dot = token != null ? token.indexOf('.') : -1;
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return null;
+        }
+
+        String payload = token.substring(0, dot);
+        try {
+            if (!MessageDigest.isEqual(mac(payload), DECODER.decode(token.substring(dot + 1)))) {
+                return null;
+            }
+            JsonNode claims = objectMapper.readTree(DECODER.decode(payload));
+            for (String claim : CLAIMS) {
+                if (!claims.hasNonNull(claim)) {
+                    return null;
+                }
+            }
+            return new ApiToken(
+                claims.get("uid").asLong(),
+                claims.get("sub").asText(),
+                User.Role.valueOf(claims.get("role").asText()),
+                ApiToken.Type.valueOf(claims.get("typ").asText()),
+                Instant.ofEpochSecond(claims.get("exp").asLong()),
+                claims.get("ver").asLong(),
+                claims.hasNonNull("jti") ? claims.get("jti").asText() : null
+            );
+        } catch (IOException | IllegalArgumentException e) {
+            // Bad base64 in the signature, or signed claims that no longer map to a role or type
+            return null;
+        }
+    }
+
+    // The account as cached now, or null when it is gone, disabled, locked or the token was revoked
+    private CachedUserDetails currentAccount(ApiToken token) {
+        UserDetails details;
+        try {
+            details = userDetailsService.loadUserByUsername(token.username());
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+        return details instanceof CachedUserDetails user && user.id().equals(token.userId()) &&
+            user.tokenVersion() == token.version() ? user : null;
+    }
+
+    // Inserting the id is the claim, so of two nodes refreshing with one token only one succeeds
+    private boolean markUsed(ApiToken token) {
+        try {
+            jdbcTemplate.update("INSERT INTO used_refresh_tokens (token_id, expires_at) VALUES (?, ?)",
+                token.id(), Timestamp.from(token.expiresAt()));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private byte[] mac(String payload) {
+        Mac mac = macs.poll();
+        if (mac == null) {
+            mac = newMac();
+        }
+        try {
+            return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        } finally {
+            macs.offer(mac);
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.themelyf.dashboard.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.RememberMeAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.event.AbstractAuthenticationFailureEvent;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts sign-ins as {@code auth.logins}, tagged with the result and whether the user gave
+ * credentials (password or OTP, from the form, the OTP endpoint or the token endpoint) or was
+ * recognised by the remember-me cookie. Bearer token requests are not sign-ins and not counted.
+ * Failures are tagged with the exception type; a password check shed by
+ * {@link BoundedPasswordEncoder} is a {@code rejected} result, not a failure.
+ */
+@Component
+public class AuthenticationMetrics {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @EventListener
+    public void onSuccess(AuthenticationSuccessEvent event) {
+        meterRegistry.counter("auth.logins",
+            "result", "success",
+            "method", method(event.getAuthentication()),
+            "reason", "none").increment();
+    }
+
+    @EventListener
+    public void onFailure(AbstractAuthenticationFailureEvent event) {
+        boolean rejected = event.getException() instanceof PasswordHashingRejectedException;
+        meterRegistry.counter("auth.logins",
+            "result", rejected ? "rejected" : "failure",
+            "method", method(event.getAuthentication()),
+            "reason", event.getException().getClass().getSimpleName()).increment();
+    }
+
+    private static String method(Authentication authentication) {
+        if (authentication instanceof RememberMeAuthenticationToken) {
+            return "remember-me";
+        }
+        if (authentication instanceof UsernamePasswordAuthenticationToken) {
+            return "credentials";
+        }
+        return "other";
+    }
+}
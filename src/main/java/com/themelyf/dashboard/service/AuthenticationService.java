@@ -1,10 +1,15 @@
 package com.themelyf.dashboard.service;
 
+import com.themelyf.dashboard.model.CachedUserDetails;
 import com.themelyf.dashboard.model.User;
 import com.themelyf.dashboard.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AccountExpiredException;
+import org.springframework.security.authentication.AuthenticationEventPublisher;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.CredentialsExpiredException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
@@ -12,8 +17,10 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
 
-import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
@@ -28,16 +35,32 @@ public class AuthenticationService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
-    @Autowired
-    private AuthenticationManager authenticationManager;
-
     @Autowired
     private EmailService emailService;
 
     @Autowired
     private SmsService smsService;
 
-    private final SecureRandom random = new SecureRandom();
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private LoginAttemptTracker loginAttemptTracker;
+
+    @Autowired
+    private AuthenticationEventPublisher authenticationEventPublisher;
+
+    @Autowired
+    private OtpCodeStore otpCodeStore;
+
+    @Autowired
+    private TotpService totpService;
+
+    @Autowired
+    private CurrentUserHolder currentUserHolder;
+
+    // Hashed once on first use, so an unknown login costs the same hash as a wrong password
+    private volatile String userNotFoundPassword;
 
     public User registerUser(User user) {
         if (userRepository.existsByUsername(user.getUsername())) {
@@ -52,7 +75,7 @@ public class AuthenticationService {
         user.setEnabled(true);
         user.setRole(User.Role.USER);
         
-        User savedUser = userRepository.save(user);
+        User savedUser = saveUser(user);
         
         // Send email verification
         sendEmailVerification(savedUser);
@@ -60,86 +83,57 @@ public class AuthenticationService {
         return savedUser;
     }
 
+    // One SELECT per attempt and one UPDATE only on success; failures are counted in memory
+    // by LoginAttemptTracker through the published authentication events
     public Authentication authenticateUser(String username, String password, String otpCode) {
-        try {
-            User user = userRepository.findByUsernameOrEmail(username, username)
-                .orElseThrow(() -> new BadCredentialsException("Invalid credentials"));
+        User user = checkPassword(username, password);
 
-            // Check if account is locked
-            if (!user.isAccountNonLocked()) {
-                throw new BadCredentialsException("Account is locked");
-            }
+        // If 2FA is enabled, verify OTP
+        if (user.isTwoFactorEnabled()) {
+            checkSecondFactor(user, otpCode);
+        }
 
-            // Verify password
-            Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(username, password)
-            );
-
-            // If 2FA is enabled, verify OTP
-            if (user.isTwoFactorEnabled()) {
-                if (otpCode == null || otpCode.isEmpty()) {
-                    throw new BadCredentialsException("OTP code required");
-                }
-                
-                if (!user.isOtpValid(otpCode)) {
-                    user.incrementFailedLoginAttempts();
-                    userRepository.save(user);
-                    throw new BadCredentialsException("Invalid OTP code");
-                }
-                
-                // Clear OTP after successful verification
-                user.setOtpCode(null);
-                user.setOtpExpiry(null);
-            }
+        return completeLogin(user, CachedUserDetails.of(user));
+    }
 
-            // Update last login and reset failed attempts
-            user.setLastLogin(LocalDateTime.now());
-            user.resetFailedLoginAttempts();
-            userRepository.save(user);
+    // First step of an OTP login: the password is checked before a code is sent, so a code
+    // alone never signs anyone in. The caller binds the returned account to a challenge
+    public CachedUserDetails startOtpLogin(String username, String password, String method) {
+        User user = checkPassword(username, password);
+
+        if ("app".equalsIgnoreCase(method)) {
+            if (user.getOtpSecret() == null) {
+                throw new IllegalArgumentException("No authenticator app is set up for this account");
+            }
+        } else if (!sendOtp(user, method)) {
+            throw new IllegalArgumentException("Failed to send OTP by " + method);
+        }
+        return CachedUserDetails.of(user);
+    }
 
-            // Set authentication in context
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-            
-            return authentication;
+    // Second step of an OTP login, for the account whose password startOtpLogin checked
+    public Authentication completeOtpLogin(Long userId, String otpCode) {
+        User user = userRepository.findById(userId)
+            .orElseThrow(() -> new BadCredentialsException("Invalid credentials"));
 
+        try {
+            loginAttemptTracker.checkAllowed(user.getUsername());
+            checkAccountStatus(user);
         } catch (AuthenticationException e) {
-            // Update failed login attempts
-            userRepository.findByUsernameOrEmail(username, username)
-                .ifPresent(user -> {
-                    user.incrementFailedLoginAttempts();
-                    userRepository.save(user);
-                });
+            publishFailure(user, e);
             throw e;
         }
+        checkSecondFactor(user, otpCode);
+
+        return completeLogin(user, CachedUserDetails.of(user));
     }
 
-    public boolean sendOtp(String usernameOrEmail, String method) {
-        Optional<User> userOpt = userRepository.findByUsernameOrEmail(usernameOrEmail, usernameOrEmail);
-        
-        if (userOpt.isEmpty()) {
-            return false; // Don't reveal if user exists
-        }
-        
-        User user = userOpt.get();
-        String otpCode = generateOtpCode();
-        
-        user.setOtpCode(otpCode);
-        user.setOtpExpiry(LocalDateTime.now().plusMinutes(5)); // OTP expires in 5 minutes
-        userRepository.save(user);
-        
-        try {
-            if ("email".equalsIgnoreCase(method)) {
-                emailService.sendOtpEmail(user.getEmail(), otpCode, user.getFirstName());
-            } else if ("sms".equalsIgnoreCase(method) && user.getPhoneNumber() != null) {
-                smsService.sendOtpSms(user.getPhoneNumber(), otpCode);
-            } else {
-                return false;
-            }
-            return true;
-        } catch (Exception e) {
-            // Log error but don't reveal details
-            return false;
-        }
+    // Second factor of a form login, after DaoAuthenticationProvider has checked the password;
+    // the provider publishes the failure, so it is not published here
+    public void checkSecondFactor(Long userId, String otpCode) {
+        User user = userRepository.findById(userId)
+            .orElseThrow(() -> new BadCredentialsException("Invalid credentials"));
+        requireOtp(user, otpCode);
     }
 
     public boolean verifyOtp(String usernameOrEmail, String otpCode) {
@@ -149,16 +143,7 @@ public class AuthenticationService {
             return false;
         }
         
-        User user = userOpt.get();
-        
-        if (user.isOtpValid(otpCode)) {
-            user.setOtpCode(null);
-            user.setOtpExpiry(null);
-            userRepository.save(user);
-            return true;
-        }
-        
-        return false;
+        return isOtpValid(userOpt.get(), otpCode);
     }
 
     public boolean changePassword(Long userId, String currentPassword, String newPassword) {
@@ -182,7 +167,8 @@ public class AuthenticationService {
         
         user.setPassword(passwordEncoder.encode(newPassword));
         user.setCredentialsNonExpired(true);
-        userRepository.save(user);
+        user.revokeApiTokens();
+        saveUser(user);
         
         // Send password change notification
         emailService.sendPasswordChangeNotification(user.getEmail(), user.getFirstName());
@@ -202,7 +188,7 @@ public class AuthenticationService {
         
         user.setPasswordResetToken(resetToken);
         user.setPasswordResetExpiry(LocalDateTime.now().plusHours(1)); // Token expires in 1 hour
-        userRepository.save(user);
+        saveUser(user);
         
         try {
             emailService.sendPasswordResetEmail(user.getEmail(), resetToken, user.getFirstName());
@@ -230,7 +216,8 @@ public class AuthenticationService {
         user.setPasswordResetExpiry(null);
         user.setCredentialsNonExpired(true);
         user.resetFailedLoginAttempts(); // Reset any account locks
-        userRepository.save(user);
+        user.revokeApiTokens();
+        saveUser(user);
         
         // Send password reset confirmation
         emailService.sendPasswordResetConfirmation(user.getEmail(), user.getFirstName());
@@ -238,6 +225,14 @@ public class AuthenticationService {
         return true;
     }
 
+    // Every access and refresh token issued to the user stops verifying
+    public void revokeApiTokens(Long userId) {
+        userRepository.findById(userId).ifPresent(user -> {
+            user.revokeApiTokens();
+            saveUser(user);
+        });
+    }
+
     public boolean enableTwoFactor(Long userId) {
         Optional<User> userOpt = userRepository.findById(userId);
         
@@ -247,8 +242,8 @@ public class AuthenticationService {
         
         User user = userOpt.get();
         user.setTwoFactorEnabled(true);
-        user.setOtpSecret(generateOtpSecret());
-        userRepository.save(user);
+        user.setOtpSecret(totpService.generateSecret());
+        saveUser(user);
         
         return true;
     }
@@ -269,9 +264,8 @@ public class AuthenticationService {
         
         user.setTwoFactorEnabled(false);
         user.setOtpSecret(null);
-        user.setOtpCode(null);
-        user.setOtpExpiry(null);
-        userRepository.save(user);
+        saveUser(user);
+        otpCodeStore.invalidate(user.getId());
         
         return true;
     }
@@ -288,30 +282,189 @@ public class AuthenticationService {
         return true;
     }
 
-    private String generateOtpCode() {
-        return String.format("%06d", random.nextInt(999999));
+    private User checkPassword(String username, String password) {
+        User user = findForLogin(username, password);
+        CachedUserDetails principal = CachedUserDetails.of(user);
+        if (principal.isAccountNonLocked()) {
+            userDetailsCache.put(principal);
+        }
+
+        try {
+            loginAttemptTracker.checkAllowed(user.getUsername());
+            checkAccountStatus(user);
+
+            // Verify password
+            if (password == null || !passwordEncoder.matches(password, user.getPassword())) {
+                throw new BadCredentialsException("Invalid credentials");
+            }
+
+            if (!user.isCredentialsNonExpired()) {
+                throw new CredentialsExpiredException("User credentials have expired");
+            }
+        } catch (PasswordHashingRejectedException e) {
+            // The password was never checked, so this is not a failed attempt
+            throw e;
+        } catch (AuthenticationException e) {
+            publishFailure(user, e);
+            throw e;
+        }
+        return user;
+    }
+
+    private void checkSecondFactor(User user, String otpCode) {
+        try {
+            requireOtp(user, otpCode);
+        } catch (AuthenticationException e) {
+            publishFailure(user, e);
+            throw e;
+        }
+    }
+
+    private void requireOtp(User user, String otpCode) {
+        if (otpCode == null || otpCode.isEmpty()) {
+            throw new BadCredentialsException("OTP code required");
+        }
+        if (!isOtpValid(user, otpCode)) {
+            throw new BadCredentialsException("Invalid OTP code");
+        }
+    }
+
+    private boolean sendOtp(User user, String method) {
+        String otpCode = otpCodeStore.issue(user.getId());
+        
+        try {
+            if ("email".equalsIgnoreCase(method)) {
+                emailService.sendOtpEmail(user.getEmail(), otpCode, user.getFirstName());
+            } else if ("sms".equalsIgnoreCase(method) && user.getPhoneNumber() != null) {
+                smsService.sendOtpSms(user.getPhoneNumber(), otpCode);
+            } else {
+                return false;
+            }
+            return true;
+        } catch (Exception e) {
+            // Log error but don't reveal details
+            return false;
+        }
+    }
+
+    // Same order as DaoAuthenticationProvider's pre-authentication checks
+    private void checkAccountStatus(User user) {
+        if (!user.isAccountNonLocked()) {
+            throw new LockedException("Account is locked");
+        }
+        
+        if (!user.isEnabled()) {
+            throw new DisabledException("User account is disabled");
+        }
+        
+        if (!user.isAccountNonExpired()) {
+            throw new AccountExpiredException("User account has expired");
+        }
     }
 
-    private String generateOtpSecret() {
-        byte[] bytes = new byte[16];
-        random.nextBytes(bytes);
-        return java.util.Base64.getEncoder().encodeToString(bytes);
+    // Both checks are in memory; the authenticator app code is tried only when a secret is set
+    private boolean isOtpValid(User user, String otpCode) {
+        if (otpCode == null || otpCode.isEmpty()) {
+            return false;
+        }
+        if (user.getOtpSecret() != null && totpService.verify(user.getId(), user.getOtpSecret(), otpCode)) {
+            return true;
+        }
+        return otpCodeStore.verify(user.getId(), otpCode);
     }
 
+    private User findForLogin(String usernameOrEmail, String password) {
+        Optional<User> userOpt = userRepository.findByUsernameOrEmail(usernameOrEmail, usernameOrEmail);
+        if (userOpt.isEmpty()) {
+            // Not answering faster than a real password check keeps usernames from being probed
+            if (password != null) {
+                passwordEncoder.matches(password, userNotFoundPassword());
+            }
+            BadCredentialsException failure = new BadCredentialsException("Invalid credentials");
+            authenticationEventPublisher.publishAuthenticationFailure(failure,
+                UsernamePasswordAuthenticationToken.unauthenticated(usernameOrEmail, null));
+            throw failure;
+        }
+        return userOpt.get();
+    }
+
+    private String userNotFoundPassword() {
+        String encoded = userNotFoundPassword;
+        if (encoded == null) {
+            encoded = passwordEncoder.encode("userNotFoundPassword");
+            userNotFoundPassword = encoded;
+        }
+        return encoded;
+    }
+
+    private void publishFailure(User user, AuthenticationException failure) {
+        authenticationEventPublisher.publishAuthenticationFailure(failure,
+            UsernamePasswordAuthenticationToken.unauthenticated(user.getUsername(), null));
+    }
+
+    private Authentication completeLogin(User user, CachedUserDetails principal) {
+        // Update last login and reset failed attempts
+        userRepository.recordLoginSuccess(user.getId(), LocalDateTime.now());
+
+        Authentication authentication = UsernamePasswordAuthenticationToken.authenticated(
+            principal, null, principal.getAuthorities());
+        authenticationEventPublisher.publishAuthenticationSuccess(authentication);
+
+        // Set authentication in context
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        
+        return authentication;
+    }
+
+    // Loaded at most once per request; prefer getCurrentPrincipal unless the entity is needed
     public User getCurrentUser() {
+        if (RequestContextHolder.getRequestAttributes() != null) {
+            return currentUserHolder.getUser();
+        }
+        
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.isAuthenticated() && 
             !authentication.getName().equals("anonymousUser")) {
+            if (authentication.getPrincipal() instanceof CachedUserDetails details) {
+                return userRepository.findById(details.id()).orElse(null);
+            }
             return userRepository.findByUsername(authentication.getName()).orElse(null);
         }
         return null;
     }
 
+    public CachedUserDetails getCurrentPrincipal() {
+        if (RequestContextHolder.getRequestAttributes() != null) {
+            return currentUserHolder.getPrincipal();
+        }
+        
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof CachedUserDetails details
+            ? details : null;
+    }
+
     public boolean isUserLoggedIn() {
-        return getCurrentUser() != null;
+        return getCurrentPrincipal() != null;
     }
 
     public void logout() {
         SecurityContextHolder.clearContext();
     }
-}
\ No newline at end of file
+
+    // Every user write goes through here so cached user details never outlive the row
+    private User saveUser(User user) {
+        User saved = userRepository.save(user);
+        userDetailsCache.evict(saved);
+        
+        // A login running concurrently may have cached the old row before this commit
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userDetailsCache.evict(saved);
+                }
+            });
+        }
+        return saved;
+    }
+}
@@ -0,0 +1,175 @@
+package com.themelyf.dashboard.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs every encode and match of the delegate on a fixed pool with a bounded queue, so
+ * hashing can use at most {@code threads} cores however many requests arrive. Work that
+ * does not fit in the queue, or waits longer than {@code maxWait}, is rejected with
+ * {@link PasswordHashingRejectedException} instead of holding the request thread.
+ * Hash time per operation, queue wait and rejections are published as
+ * {@code password.hashing*} meters.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+
+    private final ThreadPoolExecutor executor;
+
+    private final long maxWaitNanos;
+
+    private final LongAdder completed = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder timedOut = new LongAdder();
+
+    private final LongAdder queueWaitTotal = new LongAdder();
+
+    private final LongAccumulator queueWaitMax = new LongAccumulator(Math::max, 0);
+
+    private final LongAdder hashTimeTotal = new LongAdder();
+
+    private final LongAccumulator hashTimeMax = new LongAccumulator(Math::max, 0);
+
+    private final Timer encodeTimer;
+
+    private final Timer matchTimer;
+
+    private final Timer queueWaitTimer;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, Duration maxWait,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.maxWaitNanos = maxWait.toNanos();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("password.hashing").tag("operation", "encode")
+            .description("Time spent hashing, excluding the queue").register(meterRegistry);
+        this.matchTimer = Timer.builder("password.hashing").tag("operation", "match")
+            .description("Time spent hashing, excluding the queue").register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("password.hashing.queue.wait").register(meterRegistry);
+        FunctionCounter.builder("password.hashing.rejected", rejected, LongAdder::sum)
+            .tag("reason", "queue-full").register(meterRegistry);
+        FunctionCounter.builder("password.hashing.rejected", timedOut, LongAdder::sum)
+            .tag("reason", "timed-out").register(meterRegistry);
+        Gauge.builder("password.hashing.queued", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(matchTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public Map<String, Object> getStatistics() {
+        long count = completed.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("queueCapacity", executor.getQueue().size() + executor.getQueue().remainingCapacity());
+        stats.put("completed", count);
+        stats.put("rejected", rejected.sum());
+        stats.put("timedOut", timedOut.sum());
+        stats.put("queueWaitAvgMs", count > 0 ? toMillis(queueWaitTotal.sum() / count) : 0);
+        stats.put("queueWaitMaxMs", toMillis(queueWaitMax.get()));
+        stats.put("hashTimeAvgMs", count > 0 ? toMillis(hashTimeTotal.sum() / count) : 0);
+        stats.put("hashTimeMaxMs", toMillis(hashTimeMax.get()));
+        return stats;
+    }
+
+    private <T> T execute(Timer timer, Callable<T> work) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long started = System.nanoTime();
+                try {
+                    return work.call();
+                } finally {
+                    long finished = System.nanoTime();
+                    record(timer, started - submitted, finished - started);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingRejectedException("Too many concurrent password checks, please retry shortly");
+        }
+
+        try {
+            return future.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Drop it from the queue if it has not started yet, a running hash is left to finish
+            future.cancel(false);
+            executor.remove((Runnable) future);
+            timedOut.increment();
+            throw new PasswordHashingRejectedException("Password check timed out, please retry shortly");
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("Password check interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void record(Timer timer, long queueWait, long hashTime) {
+        completed.increment();
+        timer.record(hashTime, TimeUnit.NANOSECONDS);
+        queueWaitTimer.record(queueWait, TimeUnit.NANOSECONDS);
+        queueWaitTotal.add(queueWait);
+        queueWaitMax.accumulate(queueWait);
+        hashTimeTotal.add(hashTime);
+        hashTimeMax.accumulate(hashTime);
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
@@ -0,0 +1,83 @@
+package com.themelyf.dashboard.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 records one at a time: comma separated, fields optionally quoted, a quote
+ * inside a quoted field doubled, and line breaks allowed inside quotes. Only the current
+ * record is held in memory.
+ */
+class CsvRecordReader {
+
+    private final Reader reader;
+
+    private int pending = -2;
+
+    CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    // Null at end of input
+    List<String> next() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field");
+                }
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(following);
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                break;
+            } else if (c == '\r') {
+                int following = read();
+                if (following != '\n') {
+                    unread(following);
+                }
+                break;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pending = c;
+    }
+}
@@ -0,0 +1,75 @@
+package com.themelyf.dashboard.service;
+
+import com.themelyf.dashboard.model.CachedUserDetails;
+import com.themelyf.dashboard.model.User;
+import com.themelyf.dashboard.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+/**
+ * The signed-in user for the current request. The principal snapshot comes from the
+ * security context without a query; the {@link User} entity is loaded by id at most once
+ * per request, and only when something asks for it.
+ */
+@Component
+@RequestScope
+public class CurrentUserHolder {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    private Authentication resolvedFor;
+
+    private CachedUserDetails principal;
+
+    private boolean userLoaded;
+
+    private User user;
+
+    public CachedUserDetails getPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        // Re-resolved only if the request signs someone in or out part way through
+        if (authentication != resolvedFor) {
+            resolvedFor = authentication;
+            principal = resolve(authentication);
+            userLoaded = false;
+            user = null;
+        }
+        return principal;
+    }
+
+    public User getUser() {
+        CachedUserDetails current = getPrincipal();
+        if (!userLoaded) {
+            user = current != null ? userRepository.findById(current.id()).orElse(null) : null;
+            userLoaded = true;
+        }
+        return user;
+    }
+
+    private CachedUserDetails resolve(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated() ||
+            authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        if (authentication.getPrincipal() instanceof CachedUserDetails details) {
+            return details;
+        }
+
+        // Principals from other authentication paths only carry the name
+        CachedUserDetails cached = userDetailsCache.get(authentication.getName());
+        if (cached != null) {
+            return cached;
+        }
+        return userRepository.findByUsername(authentication.getName())
+            .map(CachedUserDetails::of)
+            .orElse(null);
+    }
+}
@@ -0,0 +1,137 @@
+package com.themelyf.dashboard.service;
+
+import com.themelyf.dashboard.model.ItemBulkRequest;
+import com.themelyf.dashboard.model.ItemFilter;
+import com.themelyf.dashboard.repository.DashboardItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Applies a category/status change or a delete to a set of items, selected by id or by the
+ * dashboard filter, as a single UPDATE or DELETE statement. Afterwards the facet counters are
+ * recounted and the caches invalidated once for the whole set. A change by id refreshes the
+ * search index for those ids; a change by filter does not know its rows, so the index is rebuilt.
+ */
+@Service
+public class DashboardBulkService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardBulkService.class);
+
+    private static final int MAX_LENGTH = 255;
+
+    @Autowired
+    private DashboardItemRepository repository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DashboardCacheInvalidator cacheInvalidator;
+
+    @Autowired
+    private DashboardFacetService facetService;
+
+    @Autowired
+    private DashboardSearchIndex searchIndex;
+
+    @Value("${app.dashboard.bulk.max-ids:10000}")
+    private int maxIds;
+
+    public int update(ItemBulkRequest request) {
+        String newCategory = newValue("category", request.category());
+        String newStatus = newValue("status", request.status());
+        if (newCategory == null && newStatus == null) {
+            throw new IllegalArgumentException("Give a new category or status");
+        }
+        ItemFilter filter = selection(request);
+        // Bulk statements skip @PreUpdate, so the timestamp is set here
+        LocalDateTime now = LocalDateTime.now();
+
+        int affected;
+        if (filter != null) {
+            affected = transactionTemplate.execute(status -> repository.updateMatching(
+                filter.category(), filter.status(), pattern(filter), newCategory, newStatus, now));
+            if (affected > 0) {
+                facetService.rebuild();
+                searchIndex.rebuild();
+                cacheInvalidator.allItemsChanged();
+            }
+        } else {
+            Set<Long> ids = new LinkedHashSet<>(request.ids());
+            affected = transactionTemplate.execute(status -> repository.updateByIdIn(ids, newCategory, newStatus, now));
+            if (affected > 0) {
+                facetService.rebuild();
+                searchIndex.reindexAll(repository.findAllById(ids));
+                cacheInvalidator.itemsChanged(ids);
+            }
+        }
+        log.info("Bulk update changed {} items", affected);
+        return affected;
+    }
+
+    public int delete(ItemBulkRequest request) {
+        ItemFilter filter = selection(request);
+
+        int affected;
+        if (filter != null) {
+            affected = transactionTemplate.execute(status -> repository.deleteMatching(
+                filter.category(), filter.status(), pattern(filter)));
+            if (affected > 0) {
+                facetService.rebuild();
+                searchIndex.rebuild();
+                cacheInvalidator.allItemsChanged();
+            }
+        } else {
+            Set<Long> ids = new LinkedHashSet<>(request.ids());
+            affected = transactionTemplate.execute(status -> repository.deleteByIdIn(ids));
+            if (affected > 0) {
+                facetService.rebuild();
+                searchIndex.removeAll(ids);
+                cacheInvalidator.itemsChanged(ids);
+            }
+        }
+        log.info("Bulk delete removed {} items", affected);
+        return affected;
+    }
+
+    // Null when the request selects by ids
+    private ItemFilter selection(ItemBulkRequest request) {
+        if (request.hasIds() == request.hasFilter()) {
+            throw new IllegalArgumentException("Select items either by ids or by a filter");
+        }
+        if (request.hasIds()) {
+            if (request.ids().size() > maxIds) {
+                throw new IllegalArgumentException("At most " + maxIds + " ids can be given at once");
+            }
+            return null;
+        }
+
+        ItemFilter filter = ItemFilter.of(request.filter().search(), request.filter().category(), request.filter().status());
+        if (filter.equals(ItemFilter.NONE)) {
+            throw new IllegalArgumentException("An empty filter would select every item");
+        }
+        return filter;
+    }
+
+    private static String pattern(ItemFilter filter) {
+        return filter.hasSearch() ? "%" + filter.search() + "%" : null;
+    }
+
+    private static String newValue(String name, String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        if (value.trim().length() > MAX_LENGTH) {
+            throw new IllegalArgumentException(name + " is longer than " + MAX_LENGTH + " characters");
+        }
+        return value.trim();
+    }
+}
@@ -0,0 +1,116 @@
+package com.themelyf.dashboard.service;
+
+import com.themelyf.dashboard.model.DashboardItem;
+import com.themelyf.dashboard.model.ItemPage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.cache.support.NullValue;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+@Component
+public class DashboardCacheInvalidator {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    // Every item change passes through here, so HTTP validators are moved on with the caches
+    @Autowired
+    private ItemVersionTracker versionTracker;
+
+    public void itemSaved(DashboardItem previous, DashboardItem saved) {
+        evict("dashboardItems", SimpleKey.EMPTY);
+        put("dashboardItem", saved.getId(), Optional.of(saved));
+        
+        evictAffectedPages(previous, saved);
+        versionTracker.changed();
+    }
+
+    public void itemDeleted(DashboardItem previous) {
+        evict("dashboardItems", SimpleKey.EMPTY);
+        evict("dashboardItem", previous.getId());
+        evictAffectedPages(previous);
+        versionTracker.changed();
+    }
+
+    // Too many items to test each page against, so every list and page goes; single items
+    // are new, only cached misses (an empty Optional is stored as NullValue) have to be dropped
+    public void itemsImported() {
+        evict("dashboardItems", SimpleKey.EMPTY);
+        clear("itemPages");
+        Cache cache = cacheManager.getCache("dashboardItem");
+        if (cache instanceof CaffeineCache caffeineCache) {
+            caffeineCache.getNativeCache().asMap().values()
+                .removeIf(value -> value instanceof NullValue);
+        } else if (cache != null) {
+            cache.clear();
+        }
+        versionTracker.changed();
+    }
+
+    // One pass for a bulk update or delete: which pages held the old states is unknown, so every
+    // list and page goes, and each affected id is dropped from the single item cache
+    public void itemsChanged(Collection<Long> ids) {
+        evict("dashboardItems", SimpleKey.EMPTY);
+        clear("itemPages");
+        Cache cache = cacheManager.getCache("dashboardItem");
+        if (cache instanceof CaffeineCache caffeineCache) {
+            caffeineCache.getNativeCache().invalidateAll(ids);
+        } else if (cache != null) {
+            ids.forEach(cache::evict);
+        }
+        versionTracker.changed();
+    }
+
+    // For a bulk change by filter, whose rows are not known here: every cached item goes
+    public void allItemsChanged() {
+        evict("dashboardItems", SimpleKey.EMPTY);
+        clear("itemPages");
+        clear("dashboardItem");
+        versionTracker.changed();
+    }
+
+    // A page only changes if the old or new state of the item matches its filter inside its keyset window
+    private void evictAffectedPages(DashboardItem... states) {
+        Cache cache = cacheManager.getCache("itemPages");
+        if (!(cache instanceof CaffeineCache caffeineCache)) {
+            if (cache != null) {
+                cache.clear();
+            }
+            return;
+        }
+        
+        List<DashboardItem> changed = Arrays.stream(states).filter(Objects::nonNull).toList();
+        caffeineCache.getNativeCache().asMap().values()
+            .removeIf(value -> !(value instanceof ItemPage page) || changed.stream().anyMatch(page::isAffectedBy));
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private void put(String cacheName, Object key, Object value) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.put(key, value);
+        }
+    }
+}
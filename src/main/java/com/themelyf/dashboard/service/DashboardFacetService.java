@@ -0,0 +1,91 @@
+package com.themelyf.dashboard.service;
+
+import com.themelyf.dashboard.model.DashboardItem;
+import com.themelyf.dashboard.model.FacetCounts;
+import com.themelyf.dashboard.repository.DashboardItemRepository;
+import com.themelyf.dashboard.repository.FacetCount;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+@Service
+public class DashboardFacetService {
+
+    @Autowired
+    private DashboardItemRepository repository;
+
+    private final AtomicReference<FacetCounts> counts = new AtomicReference<>(FacetCounts.EMPTY);
+
+    private volatile boolean ready = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        counts.set(loadFromDatabase());
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public FacetCounts getCounts() {
+        return counts.get();
+    }
+
+    public void itemSaved(DashboardItem previous, DashboardItem saved) {
+        if (previous == null) {
+            counts.updateAndGet(current -> current.added(saved));
+        } else if (!Objects.equals(previous.getCategory(), saved.getCategory()) ||
+                   !Objects.equals(previous.getStatus(), saved.getStatus())) {
+            counts.updateAndGet(current -> current.changed(previous, saved));
+        }
+    }
+
+    public void itemsAdded(List<DashboardItem> added) {
+        counts.updateAndGet(current -> current.addedAll(added));
+    }
+
+    public void itemDeleted(DashboardItem previous) {
+        counts.updateAndGet(current -> current.removed(previous));
+    }
+
+    // Compares the in-memory counters with the database and optionally replaces them
+    public Map<String, Object> verify(boolean repair) {
+        FacetCounts expected = loadFromDatabase();
+        FacetCounts actual = counts.get();
+        boolean consistent = expected.equals(actual);
+        
+        if (!consistent && repair) {
+            counts.set(expected);
+        }
+        
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("consistent", consistent);
+        report.put("repaired", !consistent && repair);
+        report.put("database", expected);
+        report.put("counters", actual);
+        return report;
+    }
+
+    private FacetCounts loadFromDatabase() {
+        return new FacetCounts(
+            repository.count(),
+            toMap(repository.countByCategory()),
+            toMap(repository.countByStatus())
+        );
+    }
+
+    private Map<String, Long> toMap(List<FacetCount> facetCounts) {
+        return facetCounts.stream()
+            .filter(facet -> facet.getValue() != null)
+            .collect(Collectors.toMap(FacetCount::getValue, FacetCount::getCount));
+    }
+}
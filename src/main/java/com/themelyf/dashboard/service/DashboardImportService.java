@@ -0,0 +1,230 @@
+package com.themelyf.dashboard.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.themelyf.dashboard.model.DashboardItem;
+import com.themelyf.dashboard.model.ItemImportResult;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streams dashboard items from a CSV or NDJSON upload into the database. Rows are persisted
+ * in chunks of {@code chunk-size}, each chunk in its own transaction and flushed as batched
+ * inserts with sequence-allocated ids, then detached, so memory does not grow with the
+ * upload. Facet counters and the search index are updated per chunk, caches once at the end.
+ */
+@Service
+public class DashboardImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardImportService.class);
+
+    private static final int MAX_LENGTH = 255;
+
+    public enum Format { CSV, NDJSON }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DashboardCacheInvalidator cacheInvalidator;
+
+    @Autowired
+    private DashboardFacetService facetService;
+
+    @Autowired
+    private DashboardSearchIndex searchIndex;
+
+    @Value("${app.dashboard.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.dashboard.import.max-reported-errors:20}")
+    private int maxReportedErrors;
+
+    // A CSV upload must start with a header naming at least title, category and status
+    public ItemImportResult importItems(InputStream input, Format format) throws IOException {
+        long started = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        RowSource rows = format == Format.CSV ? csvRows(reader) : ndjsonRows(reader);
+
+        List<DashboardItem> chunk = new ArrayList<>(chunkSize);
+        List<String> errors = new ArrayList<>();
+        long imported = 0;
+        long rejected = 0;
+        String failure = null;
+        try {
+            Row row;
+            while ((row = rows.next()) != null) {
+                if (row.error() != null) {
+                    rejected++;
+                    if (errors.size() < maxReportedErrors) {
+                        errors.add("Row " + row.number() + ": " + row.error());
+                    }
+                    continue;
+                }
+                chunk.add(row.item());
+                if (chunk.size() == chunkSize) {
+                    imported += persist(chunk);
+                }
+            }
+            imported += persist(chunk);
+        } catch (IOException | RuntimeException e) {
+            failure = e.getMessage();
+            log.warn("Item import stopped after {} rows: {}", imported, failure);
+        } finally {
+            if (imported > 0) {
+                cacheInvalidator.itemsImported();
+            }
+        }
+
+        long elapsedMs = Duration.ofNanos(System.nanoTime() - started).toMillis();
+        log.info("Imported {} items ({} rejected) in {}ms", imported, rejected, elapsedMs);
+        return new ItemImportResult(imported, rejected, List.copyOf(errors), elapsedMs, failure);
+    }
+
+    private int persist(List<DashboardItem> chunk) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            chunk.forEach(entityManager::persist);
+            entityManager.flush();
+            entityManager.clear();
+        });
+        facetService.itemsAdded(chunk);
+        searchIndex.indexAll(chunk);
+
+        int persisted = chunk.size();
+        chunk.clear();
+        return persisted;
+    }
+
+    private RowSource csvRows(BufferedReader reader) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        Map<String, Integer> columns = new HashMap<>();
+        if (header != null) {
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+        }
+        if (!columns.keySet().containsAll(List.of("title", "category", "status"))) {
+            throw new IllegalArgumentException("CSV header must name the title, category and status columns");
+        }
+
+        long[] number = {1};
+        return () -> {
+            List<String> record;
+            do {
+                record = csv.next();
+                number[0]++;
+            } while (record != null && record.size() == 1 && record.get(0).isBlank());
+            if (record == null) {
+                return null;
+            }
+            List<String> fields = record;
+            return toRow(number[0], name -> {
+                Integer index = columns.get(name);
+                return index != null && index < fields.size() ? fields.get(index) : null;
+            });
+        };
+    }
+
+    private RowSource ndjsonRows(BufferedReader reader) {
+        long[] number = {0};
+        return () -> {
+            String line;
+            do {
+                line = reader.readLine();
+                number[0]++;
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (JsonProcessingException e) {
+                return new Row(number[0], null, "not valid JSON");
+            }
+            if (!node.isObject()) {
+                return new Row(number[0], null, "not a JSON object");
+            }
+            return toRow(number[0], name -> {
+                JsonNode value = node.get(name);
+                return value == null || value.isNull() ? null : value.asText();
+            });
+        };
+    }
+
+    private static Row toRow(long number, FieldLookup fields) {
+        String title = trim(fields.get("title"));
+        String description = trim(fields.get("description"));
+        String category = trim(fields.get("category"));
+        String status = trim(fields.get("status"));
+
+        String error = required("title", title);
+        if (error == null) {
+            error = required("category", category);
+        }
+        if (error == null) {
+            error = required("status", status);
+        }
+        if (error != null) {
+            return new Row(number, null, error);
+        }
+        return new Row(number, new DashboardItem(title, description, category, status), null);
+    }
+
+    private static String required(String name, String value) {
+        if (value == null || value.isEmpty()) {
+            return name + " is required";
+        }
+        if (value.length() > MAX_LENGTH) {
+            return name + " is longer than " + MAX_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    private static String trim(String value) {
+        return value != null ? value.trim() : null;
+    }
+
+    private record Row(long number, DashboardItem item, String error) {}
+
+    @FunctionalInterface
+    private interface RowSource {
+        // Null at end of input
+        Row next() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface FieldLookup {
+        String get(String name);
+    }
+}
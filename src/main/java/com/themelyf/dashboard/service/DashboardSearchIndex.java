@@ -0,0 +1,301 @@
+package com.themelyf.dashboard.service;
+
+import com.themelyf.dashboard.model.DashboardItem;
+import com.themelyf.dashboard.repository.DashboardItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory n-gram index over title, description and category, answering the same
+ * case-insensitive substring query as {@link DashboardItemRepository#findBySearchTerm}.
+ * Every 1..3 character substring of each field is posted, so terms of up to three
+ * characters are a single lookup and longer terms are verified against the candidates
+ * of their rarest trigram.
+ */
+@Component
+public class DashboardSearchIndex {
+
+    private static final int MAX_GRAM = 3;
+
+    private static final int REBUILD_PAGE_SIZE = 1000;
+
+    @Autowired
+    private DashboardItemRepository repository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Replaced as a whole by rebuild(); read and changed under the lock
+    private Index index = new Index();
+
+    // Changes made while a rebuild runs, by id (empty for a removal), replayed onto the new index before it is swapped in
+    private Map<Long, Optional<DashboardItem>> pendingChanges;
+
+    private volatile boolean ready = false;
+
+    // The current index keeps answering while the new one is built, and changes made meanwhile are
+    // replayed onto the new one, so neither a half-built index nor a stale document is ever served
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Index rebuilt = new Index();
+        try {
+            Page<DashboardItem> page = repository.findAll(PageRequest.of(0, REBUILD_PAGE_SIZE, Sort.by("id")));
+            while (true) {
+                page.forEach(rebuilt::replace);
+                if (!page.hasNext()) {
+                    break;
+                }
+                page = repository.findAll(page.nextPageable());
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingChanges.forEach((id, item) -> item.ifPresentOrElse(rebuilt::replace, () -> rebuilt.remove(id)));
+            pendingChanges = null;
+            index = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // LIKE wildcards in the term cannot be answered from the index
+    public boolean supports(String term) {
+        return term.indexOf('%') < 0 && term.indexOf('_') < 0;
+    }
+
+    public List<DashboardItem> search(String term) {
+        String needle = term.toLowerCase(Locale.ROOT);
+
+        lock.readLock().lock();
+        try {
+            List<IndexedItem> matches = new ArrayList<>();
+
+            if (needle.length() <= MAX_GRAM) {
+                for (Long id : index.postings.getOrDefault(needle, Collections.emptySet())) {
+                    matches.add(index.documents.get(id));
+                }
+            } else {
+                Set<Long> candidates = index.rarestTrigram(needle);
+                for (Long id : candidates) {
+                    IndexedItem document = index.documents.get(id);
+                    if (document.contains(needle)) {
+                        matches.add(document);
+                    }
+                }
+            }
+
+            return matches.stream()
+                .sorted((a, b) -> Long.compare(a.id(), b.id()))
+                .map(IndexedItem::item)
+                .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void index(DashboardItem item) {
+        lock.writeLock().lock();
+        try {
+            put(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // New items under one write lock
+    public void indexAll(List<DashboardItem> items) {
+        lock.writeLock().lock();
+        try {
+            items.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Replaces the documents of changed items under one write lock
+    public void reindexAll(List<DashboardItem> items) {
+        lock.writeLock().lock();
+        try {
+            items.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeAll(Collection<Long> ids) {
+        lock.writeLock().lock();
+        try {
+            ids.forEach(this::delete);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            delete(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Callers hold the write lock
+    private void put(DashboardItem item) {
+        index.replace(item);
+        if (pendingChanges != null) {
+            pendingChanges.put(item.getId(), Optional.of(item));
+        }
+    }
+
+    private void delete(Long id) {
+        index.remove(id);
+        if (pendingChanges != null) {
+            pendingChanges.put(id, Optional.empty());
+        }
+    }
+
+    private static final class Index {
+
+        final Map<Long, IndexedItem> documents = new HashMap<>();
+
+        final Map<String, Set<Long>> postings = new HashMap<>();
+
+        Set<Long> rarestTrigram(String needle) {
+            Set<Long> rarest = null;
+            for (int i = 0; i + MAX_GRAM <= needle.length(); i++) {
+                Set<Long> posting = postings.get(needle.substring(i, i + MAX_GRAM));
+                if (posting == null) {
+                    return Collections.emptySet();
+                }
+                if (rarest == null || posting.size() < rarest.size()) {
+                    rarest = posting;
+                }
+            }
+            return rarest;
+        }
+
+        // Every write goes through here, so an item is never posted under both its old and new text.
+        // A change that leaves the indexed text alone (a status change) only swaps the stored item
+        void replace(DashboardItem item) {
+            IndexedItem previous = documents.get(item.getId());
+            IndexedItem document = document(item);
+            if (previous != null && previous.hasSameText(document)) {
+                documents.put(item.getId(), document);
+                return;
+            }
+            remove(item.getId());
+
+            documents.put(item.getId(), document);
+            for (String gram : document.grams()) {
+                postings.computeIfAbsent(gram, key -> new HashSet<>()).add(item.getId());
+            }
+        }
+
+        void remove(Long id) {
+            IndexedItem document = documents.remove(id);
+            if (document == null) {
+                return;
+            }
+
+            for (String gram : document.grams()) {
+                Set<Long> posting = postings.get(gram);
+                if (posting != null) {
+                    posting.remove(id);
+                    if (posting.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    private static IndexedItem document(DashboardItem item) {
+        return new IndexedItem(item.getId(), item,
+            lower(item.getTitle()), lower(item.getDescription()), lower(item.getCategory()));
+    }
+
+    private static String lower(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : null;
+    }
+
+    private record IndexedItem(Long id, DashboardItem item, String title, String description, String category) {
+
+        boolean contains(String needle) {
+            return (title != null && title.contains(needle)) ||
+                   (description != null && description.contains(needle)) ||
+                   (category != null && category.contains(needle));
+        }
+
+        boolean hasSameText(IndexedItem other) {
+            return Objects.equals(title, other.title) &&
+                   Objects.equals(description, other.description) &&
+                   Objects.equals(category, other.category);
+        }
+
+        Set<String> grams() {
+            Set<String> grams = new HashSet<>();
+            for (String field : Arrays.asList(title, description, category)) {
+                if (field == null) {
+                    continue;
+                }
+                for (int length = 1; length <= MAX_GRAM; length++) {
+                    for (int i = 0; i + length <= field.length(); i++) {
+                        grams.add(field.substring(i, i + length));
+                    }
+                }
+            }
+            return grams;
+        }
+    }
+}
@@ -1,13 +1,20 @@
 package com.themelyf.dashboard.service;
 
 import com.themelyf.dashboard.model.DashboardItem;
+import com.themelyf.dashboard.model.ItemCursor;
+import com.themelyf.dashboard.model.ItemFilter;
+import com.themelyf.dashboard.model.ItemPage;
 import com.themelyf.dashboard.repository.DashboardItemRepository;
+import com.themelyf.dashboard.repository.DashboardItemSpecifications;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -16,55 +23,115 @@ public class DashboardService {
     @Autowired
     private DashboardItemRepository repository;
     
+    @Autowired
+    private DashboardCacheInvalidator cacheInvalidator;
+    
+    @Autowired
+    private DashboardSearchIndex searchIndex;
+    
+    @Autowired
+    private DashboardFacetService facetService;
+    
+    @Value("${app.dashboard.page-size:20}")
+    private int defaultPageSize;
+    
+    @Value("${app.dashboard.max-page-size:100}")
+    private int maxPageSize;
+    
     @Cacheable("dashboardItems")
     public List<DashboardItem> getAllItems() {
         return repository.findAll();
     }
     
-    @Cacheable("dashboardItem")
-    public Optional<DashboardItem> getItemById(Long id) {
-        return repository.findById(id);
+    // One cached entry per normalized filter + keyset position
+    @Cacheable("itemPages")
+    public ItemPage findItems(ItemFilter filter, String cursor, int size, Sort.Direction direction) {
+        ItemCursor after = ItemCursor.decode(cursor);
+        
+        if (filter.hasSearch() && searchIndex.isReady() && searchIndex.supports(filter.search())) {
+            return ItemPage.slice(searchIndex.search(filter.search()), filter, after, size, direction);
+        }
+        
+        Specification<DashboardItem> specification = DashboardItemSpecifications.matching(filter)
+            .and(DashboardItemSpecifications.after(after, direction));
+        List<DashboardItem> rows = repository.findBy(specification, query -> query
+            .sortBy(DashboardItemSpecifications.keysetOrder(direction))
+            .limit(size + 1)
+            .all());
+        
+        return ItemPage.of(rows, filter, after, size, direction);
     }
     
-    @Cacheable("itemsByCategory")
-    public List<DashboardItem> getItemsByCategory(String category) {
-        return repository.findByCategory(category);
+    public int resolvePageSize(Integer requested) {
+        if (requested == null || requested < 1) {
+            return defaultPageSize;
+        }
+        return Math.min(requested, maxPageSize);
     }
     
-    @Cacheable("itemsByStatus")
-    public List<DashboardItem> getItemsByStatus(String status) {
-        return repository.findByStatus(status);
+    @Cacheable("dashboardItem")
+    public Optional<DashboardItem> getItemById(Long id) {
+        return repository.findById(id);
     }
     
-    @Cacheable("searchResults")
     public List<DashboardItem> searchItems(String searchTerm) {
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             return getAllItems();
         }
-        return repository.findBySearchTerm(searchTerm.trim());
+        
+        String term = searchTerm.trim();
+        if (searchIndex.isReady() && searchIndex.supports(term)) {
+            return searchIndex.search(term);
+        }
+        return repository.findBySearchTerm(term);
     }
     
-    @Cacheable("categories")
     public List<String> getAllCategories() {
-        return repository.findAllCategories();
+        if (!facetService.isReady()) {
+            return repository.findAllCategories();
+        }
+        return List.copyOf(facetService.getCounts().categories().keySet());
     }
     
-    @Cacheable("statuses")
     public List<String> getAllStatuses() {
-        return repository.findAllStatuses();
+        if (!facetService.isReady()) {
+            return repository.findAllStatuses();
+        }
+        return List.copyOf(facetService.getCounts().statuses().keySet());
+    }
+    
+    public Map<String, Long> getCategoryCounts() {
+        return facetService.getCounts().categories();
+    }
+    
+    public Map<String, Long> getStatusCounts() {
+        return facetService.getCounts().statuses();
     }
     
-    @CacheEvict(value = {"dashboardItems", "itemsByCategory", "itemsByStatus", "searchResults", "categories", "statuses"}, allEntries = true)
     public DashboardItem saveItem(DashboardItem item) {
-        return repository.save(item);
+        // Load the stored row first so its old category/status can be uncounted and invalidated too
+        DashboardItem previous = item.getId() != null
+            ? repository.findById(item.getId()).map(DashboardItem::new).orElse(null)
+            : null;
+        DashboardItem saved = repository.save(item);
+        facetService.itemSaved(previous, saved);
+        cacheInvalidator.itemSaved(previous, saved);
+        searchIndex.index(saved);
+        return saved;
     }
     
-    @CacheEvict(value = {"dashboardItems", "itemsByCategory", "itemsByStatus", "searchResults", "categories", "statuses"}, allEntries = true)
     public void deleteItem(Long id) {
+        Optional<DashboardItem> previous = repository.findById(id).map(DashboardItem::new);
         repository.deleteById(id);
+        previous.ifPresent(facetService::itemDeleted);
+        previous.ifPresent(cacheInvalidator::itemDeleted);
+        searchIndex.remove(id);
     }
     
     public long getTotalCount() {
-        return repository.count();
+        if (!facetService.isReady()) {
+            return repository.count();
+        }
+        return facetService.getCounts().total();
     }
 }
\ No newline at end of file
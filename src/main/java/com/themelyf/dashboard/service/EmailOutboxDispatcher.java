@@ -0,0 +1,293 @@
+package com.themelyf.dashboard.service;
+
+import com.themelyf.dashboard.model.EmailOutboxMessage;
+import com.themelyf.dashboard.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drains the email outbox on a small worker pool. Each poll claims due messages under a
+ * row lock, and each worker sends its chunk over a single SMTP connection. Failed messages
+ * are rescheduled with exponential backoff until they run out of attempts. SMTP batches are
+ * timed as {@code mail.send} and outcomes counted as {@code mail.messages}. The workers stay
+ * platform threads when virtual threads are enabled, because Jakarta Mail writes to the SMTP
+ * socket inside synchronized methods, which would pin a virtual thread's carrier for the send.
+ */
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    @Autowired
+    private EmailOutboxRepository repository;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.email.outbox.workers:2}")
+    private int workers;
+
+    // Messages sent over one SMTP connection
+    @Value("${app.email.outbox.send-batch-size:10}")
+    private int sendBatchSize;
+
+    @Value("${app.email.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${app.email.outbox.initial-backoff:10s}")
+    private Duration initialBackoff;
+
+    @Value("${app.email.outbox.max-backoff:30m}")
+    private Duration maxBackoff;
+
+    @Value("${app.email.outbox.stale-after:5m}")
+    private Duration staleAfter;
+
+    @Value("${app.email.outbox.retention:7d}")
+    private Duration retention;
+
+    private ThreadPoolTaskExecutor executor;
+
+    private Semaphore permits;
+
+    private final LongAdder sent = new LongAdder();
+
+    private final LongAdder retried = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private final LongAdder deliveryLatencyTotal = new LongAdder();
+
+    private final LongAccumulator deliveryLatencyMax = new LongAccumulator(Math::max, 0);
+
+    private final LongAdder batches = new LongAdder();
+
+    private final LongAdder batchTimeTotal = new LongAdder();
+
+    private Timer sendSuccess;
+
+    private Timer sendFailure;
+
+    // From enqueue to accepted by the SMTP server, including any retries
+    private Timer deliveryLatency;
+
+    @PostConstruct
+    void start() {
+        permits = new Semaphore(workers);
+
+        sendSuccess = Timer.builder("mail.send").tag("outcome", "success").register(meterRegistry);
+        sendFailure = Timer.builder("mail.send").tag("outcome", "failure").register(meterRegistry);
+        deliveryLatency = Timer.builder("mail.delivery.latency").register(meterRegistry);
+        FunctionCounter.builder("mail.messages", sent, LongAdder::sum).tag("result", "sent").register(meterRegistry);
+        FunctionCounter.builder("mail.messages", retried, LongAdder::sum).tag("result", "retried").register(meterRegistry);
+        FunctionCounter.builder("mail.messages", failed, LongAdder::sum).tag("result", "failed").register(meterRegistry);
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers);
+        executor.setThreadNamePrefix("email-outbox-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        int idleWorkers = permits.availablePermits();
+        if (idleWorkers == 0) {
+            return;
+        }
+
+        List<EmailOutboxMessage> claimed = claim(idleWorkers * sendBatchSize);
+        for (int from = 0; from < claimed.size(); from += sendBatchSize) {
+            List<EmailOutboxMessage> chunk = claimed.subList(from, Math.min(from + sendBatchSize, claimed.size()));
+            permits.acquireUninterruptibly();
+            try {
+                executor.execute(() -> {
+                    try {
+                        deliver(chunk);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.outbox.maintenance-interval-ms:60000}")
+    public void maintain() {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            int released = repository.releaseStale(now.minus(staleAfter), now);
+            if (released > 0) {
+                log.warn("Released {} stale email outbox messages", released);
+            }
+            repository.deleteSentBefore(now.minus(retention));
+        });
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", repository.countByStatus(EmailOutboxMessage.Status.PENDING));
+        stats.put("sending", repository.countByStatus(EmailOutboxMessage.Status.SENDING));
+        stats.put("failed", repository.countByStatus(EmailOutboxMessage.Status.FAILED));
+
+        LocalDateTime oldestPending = repository.findOldestPendingCreatedAt();
+        stats.put("oldestPendingAgeMs", oldestPending != null
+            ? Duration.between(oldestPending, LocalDateTime.now()).toMillis() : 0);
+
+        long sentCount = sent.sum();
+        stats.put("sentTotal", sentCount);
+        stats.put("retriedTotal", retried.sum());
+        stats.put("failedTotal", failed.sum());
+        stats.put("deliveryLatencyAvgMs", sentCount > 0 ? deliveryLatencyTotal.sum() / sentCount : 0);
+        stats.put("deliveryLatencyMaxMs", deliveryLatencyMax.get());
+
+        long batchCount = batches.sum();
+        stats.put("batchesTotal", batchCount);
+        stats.put("batchTimeAvgMs", batchCount > 0 ? batchTimeTotal.sum() / batchCount : 0);
+        stats.put("busyWorkers", workers - permits.availablePermits());
+        return stats;
+    }
+
+    private List<EmailOutboxMessage> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        return transactionTemplate.execute(status -> {
+            List<EmailOutboxMessage> due = repository.findDue(now, PageRequest.of(0, limit));
+            if (!due.isEmpty()) {
+                repository.markSending(due.stream().map(EmailOutboxMessage::getId).toList(), now);
+            }
+            return due;
+        });
+    }
+
+    private void deliver(List<EmailOutboxMessage> chunk) {
+        Map<SimpleMailMessage, EmailOutboxMessage> outbox = new IdentityHashMap<>();
+        for (EmailOutboxMessage message : chunk) {
+            SimpleMailMessage mail = new SimpleMailMessage();
+            mail.setFrom(message.getSender());
+            mail.setTo(message.getRecipient());
+            mail.setSubject(message.getSubject());
+            mail.setText(message.getBody());
+            outbox.put(mail, message);
+        }
+
+        Map<EmailOutboxMessage, Exception> failures = new IdentityHashMap<>();
+        long started = System.nanoTime();
+        try {
+            mailSender.send(outbox.keySet().toArray(new SimpleMailMessage[0]));
+        } catch (MailSendException e) {
+            e.getFailedMessages().forEach((mail, cause) -> {
+                EmailOutboxMessage message = outbox.get(mail);
+                if (message != null) {
+                    failures.put(message, cause);
+                }
+            });
+            if (failures.isEmpty()) {
+                chunk.forEach(message -> failures.put(message, e));
+            }
+        } catch (MailException e) {
+            chunk.forEach(message -> failures.put(message, e));
+        }
+        long elapsed = System.nanoTime() - started;
+        batches.increment();
+        batchTimeTotal.add(Duration.ofNanos(elapsed).toMillis());
+        (failures.isEmpty() ? sendSuccess : sendFailure).record(elapsed, TimeUnit.NANOSECONDS);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> sentIds = new ArrayList<>();
+        for (EmailOutboxMessage message : chunk) {
+            if (!failures.containsKey(message)) {
+                sentIds.add(message.getId());
+                long latency = Duration.between(message.getCreatedAt(), now).toMillis();
+                deliveryLatencyTotal.add(latency);
+                deliveryLatencyMax.accumulate(latency);
+                deliveryLatency.record(latency, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sentIds.isEmpty()) {
+                repository.markSent(sentIds, now);
+            }
+            failures.forEach((message, cause) -> reschedule(message, cause, now));
+        });
+        sent.add(sentIds.size());
+    }
+
+    private void reschedule(EmailOutboxMessage message, Exception cause, LocalDateTime now) {
+        // attempts was incremented by the claim, the entity still holds the value before it
+        int attempt = message.getAttempts() + 1;
+        String error = truncate(cause.getMessage());
+
+        if (attempt >= maxAttempts) {
+            repository.markFailed(message.getId(), EmailOutboxMessage.Status.FAILED, now, error);
+            failed.increment();
+            log.error("Giving up on email {} to {} after {} attempts: {}",
+                message.getId(), message.getRecipient(), attempt, error);
+            return;
+        }
+
+        repository.markFailed(message.getId(), EmailOutboxMessage.Status.PENDING, now.plus(backoff(attempt)), error);
+        retried.increment();
+    }
+
+    // Exponential backoff with +/-20% jitter so a burst of failures does not retry in lockstep
+    private Duration backoff(int attempt) {
+        long base = initialBackoff.toMillis() << Math.min(attempt - 1, 20);
+        long capped = Math.min(base, maxBackoff.toMillis());
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return Duration.ofMillis((long) (capped * jitter));
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+}
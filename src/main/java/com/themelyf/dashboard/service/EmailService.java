@@ -1,16 +1,21 @@
 package com.themelyf.dashboard.service;
 
+import com.themelyf.dashboard.model.EmailOutboxMessage;
+import com.themelyf.dashboard.repository.EmailOutboxRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+// Messages are written to the email_outbox table in the caller's transaction and
+// delivered by EmailOutboxDispatcher once that transaction has committed
 @Service
+@Transactional
 public class EmailService {
 
     @Autowired
-    private JavaMailSender mailSender;
+    private EmailOutboxRepository outboxRepository;
 
     @Value("${app.email.from:noreply@themelyf.com}")
     private String fromEmail;
@@ -33,13 +38,7 @@ public class EmailService {
             firstName, otpCode
         ));
 
-        try {
-            mailSender.send(message);
-        } catch (Exception e) {
-            // Log error in production
-            System.err.println("Failed to send OTP email: " + e.getMessage());
-            throw new RuntimeException("Failed to send OTP email");
-        }
+        enqueue(message);
     }
 
     public void sendPasswordResetEmail(String toEmail, String resetToken, String firstName) {
@@ -61,12 +60,7 @@ public class EmailService {
             firstName, resetUrl
         ));
 
-        try {
-            mailSender.send(message);
-        } catch (Exception e) {
-            System.err.println("Failed to send password reset email: " + e.getMessage());
-            throw new RuntimeException("Failed to send password reset email");
-        }
+        enqueue(message);
     }
 
     public void sendPasswordResetConfirmation(String toEmail, String firstName) {
@@ -83,11 +77,7 @@ public class EmailService {
             firstName
         ));
 
-        try {
-            mailSender.send(message);
-        } catch (Exception e) {
-            System.err.println("Failed to send password reset confirmation: " + e.getMessage());
-        }
+        enqueue(message);
     }
 
     public void sendPasswordChangeNotification(String toEmail, String firstName) {
@@ -104,11 +94,7 @@ public class EmailService {
             firstName
         ));
 
-        try {
-            mailSender.send(message);
-        } catch (Exception e) {
-            System.err.println("Failed to send password change notification: " + e.getMessage());
-        }
+        enqueue(message);
     }
 
     public void sendEmailVerification(String toEmail, String verificationToken, String firstName) {
@@ -130,12 +116,7 @@ public class EmailService {
             firstName, verificationUrl
         ));
 
-        try {
-            mailSender.send(message);
-        } catch (Exception e) {
-            System.err.println("Failed to send email verification: " + e.getMessage());
-            throw new RuntimeException("Failed to send verification email");
-        }
+        enqueue(message);
     }
 
     public void sendWelcomeEmail(String toEmail, String firstName) {
@@ -157,10 +138,13 @@ public class EmailService {
             firstName, baseUrl
         ));
 
-        try {
-            mailSender.send(message);
-        } catch (Exception e) {
-            System.err.println("Failed to send welcome email: " + e.getMessage());
+        enqueue(message);
+    }
+
+    private void enqueue(SimpleMailMessage message) {
+        for (String recipient : message.getTo()) {
+            outboxRepository.save(new EmailOutboxMessage(
+                message.getFrom(), recipient, message.getSubject(), message.getText()));
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,85 @@
+package com.themelyf.dashboard.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.themelyf.dashboard.model.SmsMessage;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Posts batches as JSON to a bulk-send endpoint:
+ * {@code {"senderId": "...", "messages": [{"to": "...", "text": "..."}]}}.
+ * Point {@code app.sms.http.url} at {@code /api/public/sms-stub/messages} to run against
+ * the local stand-in.
+ */
+@Component
+public class HttpSmsProvider implements SmsProvider {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.sms.http.url:http://localhost:8080/api/public/sms-stub/messages}")
+    private String url;
+
+    @Value("${app.sms.api-key:}")
+    private String apiKey;
+
+    @Value("${app.sms.http.max-batch-size:50}")
+    private int maxBatchSize;
+
+    @Value("${app.sms.http.timeout:5s}")
+    private Duration timeout;
+
+    // One client per provider so connections are kept alive between batches
+    private HttpClient client;
+
+    @PostConstruct
+    void init() {
+        client = HttpClient.newBuilder()
+            .connectTimeout(timeout)
+            .build();
+    }
+
+    @Override
+    public String getName() {
+        return "http";
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    @Override
+    public void send(String senderId, List<SmsMessage> batch) throws IOException, InterruptedException {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("senderId", senderId);
+        payload.put("messages", batch.stream()
+            .map(message -> Map.of("to", message.to(), "text", message.text()))
+            .toList());
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+            .timeout(timeout)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(payload)));
+        if (apiKey != null && !apiKey.isEmpty()) {
+            request.header("Authorization", "Bearer " + apiKey);
+        }
+
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("SMS provider returned " + response.statusCode() + ": " + response.body());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.themelyf.dashboard.service;
+
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of this node's dashboard item data as a whole, moved on after every change made
+ * through this node, for HTTP validators. A revalidation is answered from this counter alone,
+ * without touching the database. The item caches, search index and facet counts are per node,
+ * so the validators are too: each ETag names the node that issued it and never matches on
+ * another node, where the client simply gets a full response. No Last-Modified is given, since
+ * a per-node change time cannot show changes made through other nodes.
+ */
+@Component
+public class ItemVersionTracker {
+
+    // Random per start, so tags from other nodes, or from this node before a restart, never match
+    private final String epoch = Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, 36);
+
+    private final AtomicLong version = new AtomicLong();
+
+    public void changed() {
+        version.incrementAndGet();
+    }
+
+    public String etag() {
+        return "\"" + epoch + "-" + version.get() + "\"";
+    }
+}
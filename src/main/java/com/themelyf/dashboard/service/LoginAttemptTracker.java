@@ -0,0 +1,285 @@
+package com.themelyf.dashboard.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.themelyf.dashboard.model.CachedUserDetails;
+import com.themelyf.dashboard.model.User;
+import com.themelyf.dashboard.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.event.AuthenticationFailureBadCredentialsEvent;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts failed logins per account and per client IP in bucketed sliding windows and makes
+ * the lockout decision in memory, so a brute-force burst does not become one row write per
+ * bad password. Account state is written to {@code failed_login_attempts} and
+ * {@code account_locked_until} in periodic batches and read back at startup.
+ */
+@Component
+public class LoginAttemptTracker {
+
+    private static final int BUCKETS = 10;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.security.login-attempts.window:15m}")
+    private Duration window;
+
+    @Value("${app.security.login-attempts.max-per-ip:50}")
+    private int maxPerIp;
+
+    @Value("${app.security.login-attempts.max-tracked-keys:100000}")
+    private long maxTrackedKeys;
+
+    private long bucketMillis;
+
+    private Cache<String, SlidingWindow> accountFailures;
+
+    private Cache<String, SlidingWindow> ipFailures;
+
+    private Cache<String, Instant> accountLocks;
+
+    private Cache<String, Instant> ipLocks;
+
+    // Accounts whose in-memory state has not been written to the users table yet
+    private final Set<String> dirtyAccounts = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() {
+        bucketMillis = Math.max(1, window.toMillis() / BUCKETS);
+        accountFailures = Caffeine.newBuilder().maximumSize(maxTrackedKeys).expireAfterAccess(window).build();
+        ipFailures = Caffeine.newBuilder().maximumSize(maxTrackedKeys).expireAfterAccess(window).build();
+        accountLocks = Caffeine.newBuilder().maximumSize(maxTrackedKeys).expireAfterWrite(User.LOCKOUT_DURATION).build();
+        ipLocks = Caffeine.newBuilder().maximumSize(maxTrackedKeys).expireAfterWrite(User.LOCKOUT_DURATION).build();
+    }
+
+    // Brings back counters and lockouts that were flushed before the last shutdown
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        long bucket = currentBucket();
+        for (User user : userRepository.findUsersWithFailedAttempts(1)) {
+            String account = user.getUsername();
+            if (user.getAccountLockedUntil() != null && user.getAccountLockedUntil().isAfter(now)) {
+                accountLocks.put(account, toInstant(user.getAccountLockedUntil()));
+            }
+            accountFailures.get(account, k -> new SlidingWindow()).seed(bucket, user.getFailedLoginAttempts());
+        }
+    }
+
+    public void checkAllowed(String login, String clientIp) {
+        Instant now = Instant.now();
+        Instant ipLockedUntil = clientIp != null ? ipLocks.getIfPresent(clientIp) : null;
+        if (ipLockedUntil != null && now.isBefore(ipLockedUntil)) {
+            throw new LockedException("Too many failed logins from this address, access is locked");
+        }
+
+        Instant accountLockedUntil = login != null ? accountLocks.getIfPresent(accountKey(login)) : null;
+        if (accountLockedUntil != null && now.isBefore(accountLockedUntil)) {
+            throw new LockedException("Account is locked");
+        }
+    }
+
+    public void checkAllowed(String login) {
+        checkAllowed(login, currentClientIp());
+    }
+
+    @EventListener
+    public void onFailure(AuthenticationFailureBadCredentialsEvent event) {
+        recordFailure(event.getAuthentication().getName(), clientIp(event.getAuthentication()));
+    }
+
+    @EventListener
+    public void onSuccess(AuthenticationSuccessEvent event) {
+        // Remember-me and other token logins do not prove the password
+        if (event.getAuthentication() instanceof UsernamePasswordAuthenticationToken) {
+            recordSuccess(event.getAuthentication().getName());
+        }
+    }
+
+    public void recordFailure(String login, String clientIp) {
+        Instant now = Instant.now();
+        long bucket = currentBucket();
+
+        if (clientIp != null) {
+            int ipCount = ipFailures.get(clientIp, k -> new SlidingWindow()).increment(bucket);
+            if (ipCount >= maxPerIp) {
+                ipLocks.put(clientIp, now.plus(User.LOCKOUT_DURATION));
+            }
+        }
+
+        if (login != null) {
+            String known = knownAccount(login);
+            String account = known != null ? known : login;
+            int accountCount = accountFailures.get(account, k -> new SlidingWindow()).increment(bucket);
+            if (accountCount >= User.MAX_FAILED_LOGIN_ATTEMPTS) {
+                accountLocks.put(account, now.plus(User.LOCKOUT_DURATION));
+            }
+            // Logins that match no account are tracked but have no row to write
+            if (known != null) {
+                dirtyAccounts.add(account);
+            }
+        }
+    }
+
+    public void recordSuccess(String login) {
+        String known = knownAccount(login);
+        String account = known != null ? known : login;
+        accountFailures.invalidate(account);
+        accountLocks.invalidate(account);
+        if (known != null) {
+            dirtyAccounts.add(account);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.login-attempts.flush-interval-ms:5000}")
+    public void flush() {
+        if (dirtyAccounts.isEmpty()) {
+            return;
+        }
+
+        long bucket = currentBucket();
+        Instant now = Instant.now();
+        List<Object[]> rows = new ArrayList<>();
+        for (String account : dirtyAccounts) {
+            // Removed before reading, so a failure recorded meanwhile marks it dirty again
+            dirtyAccounts.remove(account);
+
+            SlidingWindow failures = accountFailures.getIfPresent(account);
+            Instant lockedUntil = accountLocks.getIfPresent(account);
+            rows.add(new Object[] {
+                failures != null ? failures.count(bucket) : 0,
+                lockedUntil != null && now.isBefore(lockedUntil) ? Timestamp.from(lockedUntil) : null,
+                account
+            });
+        }
+
+        jdbcTemplate.batchUpdate(
+            "UPDATE users SET failed_login_attempts = ?, account_locked_until = ? WHERE username = ?", rows);
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("trackedAccounts", accountFailures.estimatedSize());
+        stats.put("trackedIps", ipFailures.estimatedSize());
+        stats.put("lockedAccounts", accountLocks.estimatedSize());
+        stats.put("lockedIps", ipLocks.estimatedSize());
+        stats.put("pendingFlush", dirtyAccounts.size());
+        return stats;
+    }
+
+    // Email logins count against the account's username when the account is known
+    private String accountKey(String login) {
+        String known = knownAccount(login);
+        return known != null ? known : login;
+    }
+
+    // The username of the account a login names, or null when none does; the users table is
+    // only read when the account is not cached, e.g. for a first failure or an email login
+    private String knownAccount(String login) {
+        CachedUserDetails cached = userDetailsCache.get(login);
+        if (cached != null) {
+            return cached.username();
+        }
+        return userRepository.findByUsernameOrEmail(login, login).map(User::getUsername).orElse(null);
+    }
+
+    private long currentBucket() {
+        return System.currentTimeMillis() / bucketMillis;
+    }
+
+    private static String clientIp(Authentication authentication) {
+        if (authentication.getDetails() instanceof WebAuthenticationDetails details) {
+            return details.getRemoteAddress();
+        }
+        return currentClientIp();
+    }
+
+    private static String currentClientIp() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            HttpServletRequest request = attributes.getRequest();
+            return request.getRemoteAddr();
+        }
+        return null;
+    }
+
+    private static Instant toInstant(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    /**
+     * Ring of {@link #BUCKETS} slots, each packing the bucket number in the high bits and the
+     * count in the low 24 bits so a slot is rolled over and incremented with a single CAS.
+     */
+    private static final class SlidingWindow {
+
+        private static final int COUNT_BITS = 24;
+
+        private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+        private final AtomicLongArray slots = new AtomicLongArray(BUCKETS);
+
+        int increment(long bucket) {
+            int index = (int) (bucket % BUCKETS);
+            while (true) {
+                long current = slots.get(index);
+                long next = (current >>> COUNT_BITS) == bucket
+                    ? (current & COUNT_MASK) == COUNT_MASK ? current : current + 1
+                    : (bucket << COUNT_BITS) | 1;
+                if (slots.compareAndSet(index, current, next)) {
+                    return count(bucket);
+                }
+            }
+        }
+
+        void seed(long bucket, int count) {
+            slots.set((int) (bucket % BUCKETS), (bucket << COUNT_BITS) | Math.min(count, COUNT_MASK));
+        }
+
+        int count(long bucket) {
+            int total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                long slot = slots.get(i);
+                long slotBucket = slot >>> COUNT_BITS;
+                if (slotBucket <= bucket && slotBucket > bucket - BUCKETS) {
+                    total += (int) (slot & COUNT_MASK);
+                }
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.themelyf.dashboard.service;
+
+import com.themelyf.dashboard.model.SmsMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class MockSmsProvider implements SmsProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(MockSmsProvider.class);
+
+    @Override
+    public String getName() {
+        return "mock";
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return 100;
+    }
+
+    @Override
+    public void send(String senderId, List<SmsMessage> batch) {
+        // Mock SMS service for development/testing
+        for (SmsMessage message : batch) {
+            log.info("Mock SMS from {} to {}: {}", senderId, message.to(), message.text());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.themelyf.dashboard.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One-time codes sent by email or SMS, held in memory instead of the users table. Only a
+ * salted SHA-256 of each code is kept; an entry expires after the configured TTL and is
+ * dropped once it has been guessed wrong too many times or used.
+ */
+@Component
+public class OtpCodeStore {
+
+    private static final int SALT_BYTES = 16;
+
+    @Value("${app.security.otp.ttl:5m}")
+    private Duration ttl;
+
+    @Value("${app.security.otp.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.security.otp.max-tracked-keys:100000}")
+    private long maxTrackedKeys;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private Cache<Long, IssuedCode> codes;
+
+    private final LongAdder issued = new LongAdder();
+
+    private final LongAdder verified = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder exhausted = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        codes = Caffeine.newBuilder().maximumSize(maxTrackedKeys).expireAfterWrite(ttl).build();
+    }
+
+    // Issuing a new code replaces any outstanding one for the user
+    public String issue(Long userId) {
+        String code = String.format("%06d", random.nextInt(1_000_000));
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        codes.put(userId, new IssuedCode(salt, hash(salt, code)));
+        issued.increment();
+        return code;
+    }
+
+    public boolean verify(Long userId, String code) {
+        IssuedCode issuedCode = code != null ? codes.getIfPresent(userId) : null;
+        if (issuedCode == null) {
+            return false;
+        }
+
+        if (MessageDigest.isEqual(issuedCode.hash(), hash(issuedCode.salt(), code))) {
+            // Only the caller that removes the entry gets to use the code
+            if (codes.asMap().remove(userId, issuedCode)) {
+                verified.increment();
+                return true;
+            }
+            return false;
+        }
+
+        rejected.increment();
+        if (issuedCode.failures().incrementAndGet() >= maxAttempts) {
+            codes.asMap().remove(userId, issuedCode);
+            exhausted.increment();
+        }
+        return false;
+    }
+
+    public void invalidate(Long userId) {
+        codes.invalidate(userId);
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("outstanding", codes.estimatedSize());
+        stats.put("issued", issued.sum());
+        stats.put("verified", verified.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("exhausted", exhausted.sum());
+        return stats;
+    }
+
+    private static byte[] hash(byte[] salt, String code) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(salt);
+            return digest.digest(code.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record IssuedCode(byte[] salt, byte[] hash, AtomicInteger failures) {
+
+        IssuedCode(byte[] salt, byte[] hash) {
+            this(salt, hash, new AtomicInteger());
+        }
+    }
+}
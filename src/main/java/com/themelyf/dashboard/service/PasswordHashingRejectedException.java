@@ -0,0 +1,14 @@
+package com.themelyf.dashboard.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Thrown when the password hashing pool is saturated; the request should be retried later
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class PasswordHashingRejectedException extends AuthenticationServiceException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,294 @@
+package com.themelyf.dashboard.service;
+
+import com.themelyf.dashboard.model.SmsMessage;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sends SMS off the request thread. Each priority has its own bounded lane and a worker
+ * always drains the OTP lane before looking at notifications, so a burst of welcome
+ * messages only ever delays a login code by the one batch already in flight. The number
+ * of workers is the number of concurrent requests the provider will see. Provider calls
+ * are timed as {@code sms.send}, message outcomes counted as {@code sms.messages}.
+ */
+@Component
+public class SmsDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(SmsDispatcher.class);
+
+    @Autowired
+    private List<SmsProvider> providers;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${app.sms.provider:mock}")
+    private String providerName;
+
+    @Value("${app.sms.sender-id:ThemelyF}")
+    private String senderId;
+
+    @Value("${app.sms.max-concurrent-requests:2}")
+    private int maxConcurrentRequests;
+
+    @Value("${app.sms.otp-queue-capacity:1000}")
+    private int otpQueueCapacity;
+
+    @Value("${app.sms.notification-queue-capacity:5000}")
+    private int notificationQueueCapacity;
+
+    @Value("${app.sms.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.sms.retry-backoff:500ms}")
+    private Duration retryBackoff;
+
+    private SmsProvider provider;
+
+    private final Map<SmsMessage.Priority, BlockingQueue<SmsMessage>> lanes = new EnumMap<>(SmsMessage.Priority.class);
+
+    private final Map<SmsMessage.Priority, LaneStats> stats = new EnumMap<>(SmsMessage.Priority.class);
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notEmpty = lock.newCondition();
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final LongAdder batches = new LongAdder();
+
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        // Unknown provider names fail at startup rather than on the first send
+        provider = providers.stream()
+            .filter(candidate -> candidate.getName().equalsIgnoreCase(providerName))
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("SMS provider not configured: " + providerName));
+
+        lanes.put(SmsMessage.Priority.OTP, new ArrayBlockingQueue<>(otpQueueCapacity));
+        lanes.put(SmsMessage.Priority.NOTIFICATION, new ArrayBlockingQueue<>(notificationQueueCapacity));
+        for (SmsMessage.Priority priority : SmsMessage.Priority.values()) {
+            LaneStats lane = new LaneStats();
+            stats.put(priority, lane);
+
+            Tags tags = Tags.of("provider", provider.getName(), "priority", priority.name().toLowerCase());
+            lane.sendSuccess = Timer.builder("sms.send").tags(tags).tag("outcome", "success").register(meterRegistry);
+            lane.sendFailure = Timer.builder("sms.send").tags(tags).tag("outcome", "failure").register(meterRegistry);
+            registerCounter("queued", lane.queued, tags);
+            registerCounter("rejected", lane.rejected, tags);
+            registerCounter("sent", lane.sent, tags);
+            registerCounter("retried", lane.retried, tags);
+            registerCounter("failed", lane.failed, tags);
+            Gauge.builder("sms.queue.depth", lanes.get(priority), BlockingQueue::size).tags(tags).register(meterRegistry);
+        }
+
+        running = true;
+        ThreadFactory threadFactory = workerThreadFactory();
+        for (int i = 0; i < maxConcurrentRequests; i++) {
+            Thread worker = threadFactory.newThread(this::work);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    // Virtual when spring.threads.virtual.enabled is set on Java 21: a worker mostly waits on
+    // its lane or the provider, and nothing it does holds a monitor across I/O
+    private ThreadFactory workerThreadFactory() {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return new VirtualThreadTaskExecutor("sms-dispatch-").getVirtualThreadFactory();
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "sms-dispatch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        lock.lock();
+        try {
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    public String getProviderName() {
+        return provider.getName();
+    }
+
+    // Returns false when the lane is full, the message is not queued
+    public boolean submit(SmsMessage message) {
+        LaneStats lane = stats.get(message.priority());
+        if (!lanes.get(message.priority()).offer(message)) {
+            lane.rejected.increment();
+            return false;
+        }
+        lane.queued.increment();
+        signal();
+        return true;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("provider", provider.getName());
+        response.put("workers", workers.size());
+        response.put("batches", batches.sum());
+        for (SmsMessage.Priority priority : SmsMessage.Priority.values()) {
+            LaneStats lane = stats.get(priority);
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("depth", lanes.get(priority).size());
+            entry.put("queued", lane.queued.sum());
+            entry.put("rejected", lane.rejected.sum());
+            entry.put("sent", lane.sent.sum());
+            entry.put("retried", lane.retried.sum());
+            entry.put("failed", lane.failed.sum());
+            response.put(priority.name().toLowerCase(), entry);
+        }
+        return response;
+    }
+
+    private void work() {
+        while (running) {
+            List<SmsMessage> batch;
+            try {
+                batch = nextBatch();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+
+            if (!deliver(batch)) {
+                try {
+                    Thread.sleep(retryBackoff.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private List<SmsMessage> nextBatch() throws InterruptedException {
+        lock.lock();
+        try {
+            while (running && allLanesEmpty()) {
+                notEmpty.await(1, TimeUnit.SECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // Lanes are checked in priority order, a batch never mixes lanes
+        List<SmsMessage> batch = new ArrayList<>();
+        for (SmsMessage.Priority priority : SmsMessage.Priority.values()) {
+            lanes.get(priority).drainTo(batch, provider.getMaxBatchSize());
+            if (!batch.isEmpty()) {
+                break;
+            }
+        }
+        return batch;
+    }
+
+    private boolean deliver(List<SmsMessage> batch) {
+        LaneStats lane = stats.get(batch.get(0).priority());
+        batches.increment();
+        long started = System.nanoTime();
+        try {
+            provider.send(senderId, batch);
+            lane.sendSuccess.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            lane.sent.add(batch.size());
+            return true;
+        } catch (Exception e) {
+            lane.sendFailure.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.warn("Failed to send {} SMS via {}: {}", batch.size(), provider.getName(), e.getMessage());
+            for (SmsMessage message : batch) {
+                if (message.attempt() < maxAttempts && lanes.get(message.priority()).offer(message.retry())) {
+                    lane.retried.increment();
+                } else {
+                    lane.failed.increment();
+                    log.error("Failed to send SMS to {}", message.to());
+                }
+            }
+            return false;
+        }
+    }
+
+    private void registerCounter(String result, LongAdder count, Tags tags) {
+        FunctionCounter.builder("sms.messages", count, LongAdder::sum).tags(tags).tag("result", result)
+            .register(meterRegistry);
+    }
+
+    private boolean allLanesEmpty() {
+        for (BlockingQueue<SmsMessage> lane : lanes.values()) {
+            if (!lane.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void signal() {
+        lock.lock();
+        try {
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static class LaneStats {
+        final LongAdder queued = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder sent = new LongAdder();
+        final LongAdder retried = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        Timer sendSuccess;
+        Timer sendFailure;
+    }
+}
@@ -0,0 +1,16 @@
+package com.themelyf.dashboard.service;
+
+import com.themelyf.dashboard.model.SmsMessage;
+
+import java.util.List;
+
+// Implementations are picked by name through app.sms.provider
+public interface SmsProvider {
+
+    String getName();
+
+    // Largest number of messages the provider accepts in one request
+    int getMaxBatchSize();
+
+    void send(String senderId, List<SmsMessage> batch) throws Exception;
+}
@@ -1,27 +1,33 @@
 package com.themelyf.dashboard.service;
 
+import com.themelyf.dashboard.model.SmsMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
 public class SmsService {
 
+    private static final Logger log = LoggerFactory.getLogger(SmsService.class);
+
+    @Autowired
+    private SmsDispatcher smsDispatcher;
+
     @Value("${app.sms.provider:mock}")
     private String smsProvider;
 
     @Value("${app.sms.api-key:}")
     private String apiKey;
 
-    @Value("${app.sms.sender-id:ThemelyF}")
-    private String senderId;
-
     public void sendOtpSms(String phoneNumber, String otpCode) {
         String message = String.format(
             "Your Themelyf Dashboard OTP code is: %s. This code will expire in 5 minutes. Do not share this code with anyone.",
             otpCode
         );
         
-        sendSms(phoneNumber, message);
+        sendSms(phoneNumber, message, SmsMessage.Priority.OTP);
     }
 
     public void sendPasswordResetSms(String phoneNumber, String firstName) {
@@ -30,7 +36,7 @@ public class SmsService {
             firstName != null ? firstName : "User"
         );
         
-        sendSms(phoneNumber, message);
+        sendSms(phoneNumber, message, SmsMessage.Priority.NOTIFICATION);
     }
 
     public void sendWelcomeSms(String phoneNumber, String firstName) {
@@ -39,24 +45,12 @@ public class SmsService {
             firstName != null ? firstName : "User"
         );
         
-        sendSms(phoneNumber, message);
+        sendSms(phoneNumber, message, SmsMessage.Priority.NOTIFICATION);
     }
 
-    private void sendSms(String phoneNumber, String message) {
-        try {
-            if ("mock".equalsIgnoreCase(smsProvider)) {
-                // Mock SMS service for development/testing
-                System.out.println("=== MOCK SMS SERVICE ===");
-                System.out.println("To: " + phoneNumber);
-                System.out.println("Message: " + message);
-                System.out.println("========================");
-            } else {
-                // In production, integrate with actual SMS provider
-                // Examples: Twilio, AWS SNS, etc.
-                throw new UnsupportedOperationException("SMS provider not configured: " + smsProvider);
-            }
-        } catch (Exception e) {
-            System.err.println("Failed to send SMS to " + phoneNumber + ": " + e.getMessage());
+    private void sendSms(String phoneNumber, String message, SmsMessage.Priority priority) {
+        if (!smsDispatcher.submit(SmsMessage.of(phoneNumber, message, priority))) {
+            log.warn("SMS queue full, dropping {} message to {}", priority, phoneNumber);
             throw new RuntimeException("Failed to send SMS");
         }
     }
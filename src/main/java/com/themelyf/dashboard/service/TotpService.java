@@ -0,0 +1,174 @@
+package com.themelyf.dashboard.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RFC 6238 time-based codes (HMAC-SHA1, 30 second steps, 6 digits) computed from the
+ * user's Base32 {@code otpSecret}, compatible with common authenticator apps. A code is
+ * accepted one step either side of the current one to allow for clock drift, and a step
+ * that has been used once is not accepted again for the same user.
+ */
+@Component
+public class TotpService {
+
+    private static final long STEP_SECONDS = 30;
+
+    private static final int DIGITS = 6;
+
+    private static final int MODULUS = 1_000_000;
+
+    private static final int SECRET_BYTES = 20;
+
+    private static final String BASE32 = "ABCDEFGHIJKLMNOPQRSTUVWXYZ234567";
+
+    @Value("${app.security.otp.totp-window:1}")
+    private int window;
+
+    @Value("${app.security.otp.max-tracked-keys:100000}")
+    private long maxTrackedKeys;
+
+    private final SecureRandom random = new SecureRandom();
+
+    // Last accepted step per user, kept only as long as that step could still verify
+    private Cache<Long, Long> lastUsedStep;
+
+    private final LongAdder verified = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder replayed = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        lastUsedStep = Caffeine.newBuilder()
+            .maximumSize(maxTrackedKeys)
+            .expireAfterWrite(Duration.ofSeconds(STEP_SECONDS * (2L * window + 1)))
+            .build();
+    }
+
+    public String generateSecret() {
+        byte[] secret = new byte[SECRET_BYTES];
+        random.nextBytes(secret);
+        return encodeBase32(secret);
+    }
+
+    public boolean verify(Long userId, String secret, String code) {
+        byte[] key = secret != null ? decodeBase32(secret) : null;
+        if (key == null || code == null || code.length() != DIGITS) {
+            return false;
+        }
+
+        byte[] expected = code.getBytes(StandardCharsets.US_ASCII);
+        long current = System.currentTimeMillis() / 1000 / STEP_SECONDS;
+        long matched = -1;
+        // Every candidate step is computed so the time taken does not reveal which one matched
+        for (long step = current - window; step <= current + window; step++) {
+            if (MessageDigest.isEqual(expected, generate(key, step).getBytes(StandardCharsets.US_ASCII))) {
+                matched = step;
+            }
+        }
+        if (matched < 0) {
+            rejected.increment();
+            return false;
+        }
+        return accept(userId, matched);
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("verified", verified.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("replayed", replayed.sum());
+        return stats;
+    }
+
+    private boolean accept(Long userId, long step) {
+        boolean[] accepted = {false};
+        lastUsedStep.asMap().compute(userId, (id, last) -> {
+            if (last != null && step <= last) {
+                return last;
+            }
+            accepted[0] = true;
+            return step;
+        });
+        (accepted[0] ? verified : replayed).increment();
+        return accepted[0];
+    }
+
+    private static String generate(byte[] key, long step) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA1");
+            mac.init(new SecretKeySpec(key, "HmacSHA1"));
+            byte[] hash = mac.doFinal(ByteBuffer.allocate(Long.BYTES).putLong(step).array());
+
+            // Dynamic truncation, RFC 4226 section 5.3
+            int offset = hash[hash.length - 1] & 0x0f;
+            int binary = ((hash[offset] & 0x7f) << 24)
+                | ((hash[offset + 1] & 0xff) << 16)
+                | ((hash[offset + 2] & 0xff) << 8)
+                | (hash[offset + 3] & 0xff);
+            return String.format("%0" + DIGITS + "d", binary % MODULUS);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA1 not available", e);
+        }
+    }
+
+    private static String encodeBase32(byte[] data) {
+        StringBuilder encoded = new StringBuilder((data.length * 8 + 4) / 5);
+        int buffer = 0;
+        int bits = 0;
+        for (byte b : data) {
+            buffer = (buffer << 8) | (b & 0xff);
+            bits += 8;
+            while (bits >= 5) {
+                encoded.append(BASE32.charAt((buffer >> (bits - 5)) & 0x1f));
+                bits -= 5;
+            }
+        }
+        if (bits > 0) {
+            encoded.append(BASE32.charAt((buffer << (5 - bits)) & 0x1f));
+        }
+        return encoded.toString();
+    }
+
+    // Returns null for anything that is not Base32, such as secrets issued before TOTP support
+    private static byte[] decodeBase32(String encoded) {
+        String normalized = encoded.replace("=", "").replace(" ", "");
+        if (normalized.isEmpty()) {
+            return null;
+        }
+
+        ByteBuffer decoded = ByteBuffer.allocate(normalized.length() * 5 / 8);
+        int buffer = 0;
+        int bits = 0;
+        for (int i = 0; i < normalized.length(); i++) {
+            int value = BASE32.indexOf(normalized.charAt(i));
+            if (value < 0) {
+                return null;
+            }
+            buffer = (buffer << 5) | value;
+            bits += 5;
+            if (bits >= 8) {
+                decoded.put((byte) (buffer >> (bits - 8)));
+                bits -= 8;
+            }
+        }
+        return decoded.array();
+    }
+}
@@ -0,0 +1,54 @@
+package com.themelyf.dashboard.service;
+
+import com.themelyf.dashboard.model.CachedUserDetails;
+import com.themelyf.dashboard.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * User-details snapshots keyed by lowercased username and by lowercased email. A hit is
+ * only served when it matches the login exactly, so the cache never accepts a spelling
+ * the database query would reject.
+ */
+@Component
+public class UserDetailsCache {
+
+    public static final String CACHE_NAME = "userDetails";
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    public CachedUserDetails get(String login) {
+        if (login == null) {
+            return null;
+        }
+        CachedUserDetails details = cache().get(key(login), CachedUserDetails.class);
+        return details != null && details.matchesLogin(login) ? details : null;
+    }
+
+    public void put(CachedUserDetails details) {
+        cache().put(key(details.username()), details);
+        cache().put(key(details.email()), details);
+    }
+
+    public void evict(User user) {
+        if (user.getUsername() != null) {
+            cache().evict(key(user.getUsername()));
+        }
+        if (user.getEmail() != null) {
+            cache().evict(key(user.getEmail()));
+        }
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(CACHE_NAME);
+    }
+
+    private static String key(String login) {
+        return login.toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,6 +1,6 @@
 package com.themelyf.dashboard.service;
 
-import com.themelyf.dashboard.model.User;
+import com.themelyf.dashboard.model.CachedUserDetails;
 import com.themelyf.dashboard.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,11 +15,23 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsernameOrEmail(username, username)
-            .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        CachedUserDetails user = userDetailsCache.get(username);
+        if (user == null) {
+            user = userRepository.findByUsernameOrEmail(username, username)
+                .map(CachedUserDetails::of)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+
+            // Locked accounts are re-read every time so the lock lifts as soon as it expires
+            if (user.isAccountNonLocked()) {
+                userDetailsCache.put(user);
+            }
+        }
 
         if (!user.isEnabled()) {
             throw new UsernameNotFoundException("User account is disabled: " + username);
@@ -0,0 +1,65 @@
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    username VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255),
+    last_name VARCHAR(255),
+    phone_number VARCHAR(255),
+    role VARCHAR(255) NOT NULL,
+    account_non_expired BOOLEAN,
+    account_non_locked BOOLEAN,
+    credentials_non_expired BOOLEAN,
+    enabled BOOLEAN,
+    email_verified BOOLEAN,
+    phone_verified BOOLEAN,
+    two_factor_enabled BOOLEAN,
+    otp_secret VARCHAR(255),
+    otp_code VARCHAR(255),
+    otp_expiry TIMESTAMP(6),
+    password_reset_token VARCHAR(255),
+    password_reset_expiry TIMESTAMP(6),
+    last_login TIMESTAMP(6),
+    failed_login_attempts INTEGER,
+    account_locked_until TIMESTAMP(6),
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT ck_users_role CHECK (role IN ('USER', 'ADMIN', 'MODERATOR'))
+);
+
+CREATE TABLE dashboard_items (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    title VARCHAR(255) NOT NULL,
+    description TEXT,
+    category VARCHAR(255) NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    CONSTRAINT pk_dashboard_items PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_dashboard_items_updated_id ON dashboard_items (updated_at, id);
+CREATE INDEX idx_dashboard_items_category_status_updated ON dashboard_items (category, status, updated_at);
+CREATE INDEX idx_dashboard_items_status_updated ON dashboard_items (status, updated_at);
+
+CREATE TABLE email_outbox (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    recipient VARCHAR(255) NOT NULL,
+    sender VARCHAR(255),
+    subject VARCHAR(255) NOT NULL,
+    body TEXT,
+    status VARCHAR(255) NOT NULL,
+    attempts INTEGER NOT NULL,
+    next_attempt_at TIMESTAMP(6) NOT NULL,
+    claimed_at TIMESTAMP(6),
+    sent_at TIMESTAMP(6),
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP(6),
+    CONSTRAINT pk_email_outbox PRIMARY KEY (id),
+    CONSTRAINT ck_email_outbox_status CHECK (status IN ('PENDING', 'SENDING', 'SENT', 'FAILED'))
+);
+
+CREATE INDEX idx_email_outbox_status_next_attempt ON email_outbox (status, next_attempt_at);
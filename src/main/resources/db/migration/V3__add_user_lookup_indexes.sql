@@ -0,0 +1,14 @@
+-- findByPasswordResetToken
+CREATE INDEX idx_users_password_reset_token ON users (password_reset_token);
+
+-- findLockedUsers
+CREATE INDEX idx_users_account_locked_until ON users (account_locked_until);
+
+-- findInactiveUsers, countActiveUsersAfter
+CREATE INDEX idx_users_last_login ON users (last_login);
+
+-- findUsersWithFailedAttempts, read at startup to rebuild lockouts
+CREATE INDEX idx_users_failed_login_attempts ON users (failed_login_attempts);
+
+-- countNewUsersAfter
+CREATE INDEX idx_users_created_at ON users (created_at);
@@ -0,0 +1,8 @@
+-- Ids come from a sequence instead of the identity column, so Hibernate can batch inserts.
+-- Hibernate reserves 50 ids per call (pooled-lo: the value returned is the first of the block)
+CREATE SEQUENCE dashboard_items_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE dashboard_items_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM dashboard_items);
+
+-- Plain SQL inserts take a whole block too, so they never collide with ids Hibernate holds
+ALTER TABLE dashboard_items ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE dashboard_items ALTER COLUMN id SET DEFAULT NEXT VALUE FOR dashboard_items_seq;
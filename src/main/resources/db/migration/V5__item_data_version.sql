@@ -0,0 +1,8 @@
+-- One row moved on by every change to dashboard_items, so all nodes derive the same HTTP validators
+CREATE TABLE item_data_version (
+    id INT PRIMARY KEY,
+    version BIGINT NOT NULL,
+    changed_at TIMESTAMP NOT NULL
+);
+
+INSERT INTO item_data_version (id, version, changed_at) VALUES (1, 0, CURRENT_TIMESTAMP);
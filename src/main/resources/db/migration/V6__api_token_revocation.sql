@@ -0,0 +1,10 @@
+-- Claimed by every API token; moving it on revokes all tokens issued to the user
+ALTER TABLE users ADD COLUMN token_version BIGINT DEFAULT 0 NOT NULL;
+
+-- Refresh tokens are single-use: the id of each one exchanged is kept until it would have expired
+CREATE TABLE used_refresh_tokens (
+    token_id VARCHAR(32) PRIMARY KEY,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_used_refresh_tokens_expires_at ON used_refresh_tokens (expires_at);
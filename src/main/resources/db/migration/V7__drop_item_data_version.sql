@@ -0,0 +1,2 @@
+-- Item validators are kept per node in memory again, next to the caches they describe
+DROP TABLE IF EXISTS item_data_version;
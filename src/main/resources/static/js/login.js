@@ -125,10 +125,11 @@ document.addEventListener('DOMContentLoaded', function() {
     
     async function sendOtp(isResend = false) {
         const username = document.getElementById('otpUsername').value.trim();
+        const password = document.getElementById('otpPassword').value;
         const method = document.querySelector('input[name="otpMethod"]:checked').value;
         
-        if (!username) {
-            showNotification('Please enter your username or email', 'error');
+        if (!username || !password) {
+            showNotification('Please enter your username and password', 'error');
             return;
         }
         
@@ -146,6 +147,7 @@ document.addEventListener('DOMContentLoaded', function() {
                 },
                 body: JSON.stringify({
                     username: username,
+                    password: password,
                     method: method
                 })
             });
@@ -154,11 +156,14 @@ document.addEventListener('DOMContentLoaded', function() {
             
             if (response.ok && data.success) {
                 showNotification(
-                    `OTP sent to your ${method}. Please check and enter the code.`,
+                    method === 'app'
+                        ? data.message
+                        : `OTP sent to your ${method}. Please check and enter the code.`,
                     'success'
                 );
                 
-                document.getElementById('otpSentTo').textContent = method;
+                document.getElementById('otpSentTo').textContent =
+                    method === 'app' ? 'authenticator app' : method;
                 
                 if (!isResend) {
                     showOtpStep2();
@@ -181,8 +186,9 @@ document.addEventListener('DOMContentLoaded', function() {
         }
     }
     
-    async function verifyOtp() {
-        const username = document.getElementById('otpUsername').value.trim();
+    // The code goes with the password through the regular form login, so the session is
+    // created by Spring Security (fixation protection, concurrent session limit) as usual
+    function verifyOtp() {
         const otpCode = document.getElementById('otpCode').value.trim();
         
         if (!otpCode || otpCode.length !== 6) {
@@ -192,45 +198,15 @@ document.addEventListener('DOMContentLoaded', function() {
         
         setButtonLoading(verifyOtpBtn, true);
         
-        try {
-            const response = await fetch('/api/auth/verify-otp', {
-                method: 'POST',
-                headers: {
-                    'Content-Type': 'application/json',
-                    'X-Requested-With': 'XMLHttpRequest'
-                },
-                body: JSON.stringify({
-                    username: username,
-                    otpCode: otpCode
-                })
-            });
-            
-            const data = await response.json();
-            
-            if (response.ok && data.success) {
-                showNotification('Login successful! Redirecting...', 'success');
-                
-                // Redirect to dashboard or intended page
-                setTimeout(() => {
-                    window.location.href = data.redirectUrl || '/dashboard';
-                }, 1000);
-                
-            } else {
-                showNotification(
-                    data.message || 'Invalid OTP code. Please try again.',
-                    'error'
-                );
-                
-                // Clear OTP input for retry
-                document.getElementById('otpCode').value = '';
-                document.getElementById('otpCode').focus();
-            }
-        } catch (error) {
-            console.error('Verify OTP error:', error);
-            showNotification('Network error. Please try again.', 'error');
-        } finally {
-            setButtonLoading(verifyOtpBtn, false);
-        }
+        document.getElementById('username').value = document.getElementById('otpUsername').value.trim();
+        document.getElementById('password').value = document.getElementById('otpPassword').value;
+        
+        const codeInput = document.createElement('input');
+        codeInput.type = 'hidden';
+        codeInput.name = 'otpCode';
+        codeInput.value = otpCode;
+        passwordLoginForm.appendChild(codeInput);
+        passwordLoginForm.submit();
     }
     
     function setButtonLoading(button, isLoading) {
@@ -0,0 +1,132 @@
+package com.themelyf.dashboard.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:session-test",
+    "app.session.touch-interval=60s"
+})
+class LazyTouchSessionRepositoryTest {
+
+    @Autowired
+    private FindByIndexNameSessionRepository<?> sessionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LazyTouchSessionRepository<Session> repository;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void useLazyTouchRepository() {
+        // The primary repository is the one the session filter uses
+        assertThat(sessionRepository).isInstanceOf(LazyTouchSessionRepository.class);
+        repository = (LazyTouchSessionRepository<Session>) sessionRepository;
+    }
+
+    @Test
+    void storesSessionsAndAttributesInTheDatabase() {
+        LazyTouchSessionRepository<Session>.LazyTouchSession session = repository.createSession();
+        session.setAttribute("theme", "dark");
+        repository.save(session);
+
+        assertThat(storedLastAccess(session.getId())).isEqualTo(session.getLastAccessedTime().toEpochMilli());
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM SPRING_SESSION_ATTRIBUTES a JOIN SPRING_SESSION s ON a.SESSION_PRIMARY_ID = s.PRIMARY_ID " +
+            "WHERE s.SESSION_ID = ?", Integer.class, session.getId())).isEqualTo(1);
+
+        LazyTouchSessionRepository<Session>.LazyTouchSession loaded = repository.findById(session.getId());
+        assertThat(loaded.<String>getAttribute("theme")).isEqualTo("dark");
+
+        repository.deleteById(session.getId());
+        assertThat(repository.findById(session.getId())).isNull();
+        assertThat(sessionCount(session.getId())).isZero();
+    }
+
+    @Test
+    void findsSessionsByPrincipalName() {
+        LazyTouchSessionRepository<Session>.LazyTouchSession session = repository.createSession();
+        session.setAttribute(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, "session-owner");
+        repository.save(session);
+
+        assertThat(repository.findByPrincipalName("session-owner")).containsOnlyKeys(session.getId());
+    }
+
+    @Test
+    void doesNotWriteATouchWithinTheInterval() {
+        String id = savedSession();
+        long stored = storedLastAccess(id);
+
+        LazyTouchSessionRepository<Session>.LazyTouchSession loaded = repository.findById(id);
+        loaded.setLastAccessedTime(Instant.ofEpochMilli(stored).plusSeconds(59));
+        repository.save(loaded);
+
+        assertThat(storedLastAccess(id)).isEqualTo(stored);
+    }
+
+    @Test
+    void writesATouchOnceTheIntervalHasPassed() {
+        String id = savedSession();
+        Instant touched = Instant.ofEpochMilli(storedLastAccess(id)).plusSeconds(60);
+
+        LazyTouchSessionRepository<Session>.LazyTouchSession loaded = repository.findById(id);
+        loaded.setLastAccessedTime(touched);
+        repository.save(loaded);
+
+        assertThat(storedLastAccess(id)).isEqualTo(touched.toEpochMilli());
+    }
+
+    @Test
+    void capsTheIntervalAtHalfTheSessionTimeout() {
+        LazyTouchSessionRepository<Session>.LazyTouchSession session = repository.createSession();
+        session.setMaxInactiveInterval(Duration.ofSeconds(40));
+        repository.save(session);
+        Instant touched = Instant.ofEpochMilli(storedLastAccess(session.getId())).plusSeconds(20);
+
+        LazyTouchSessionRepository<Session>.LazyTouchSession loaded = repository.findById(session.getId());
+        loaded.setLastAccessedTime(touched);
+        repository.save(loaded);
+
+        assertThat(storedLastAccess(session.getId())).isEqualTo(touched.toEpochMilli());
+    }
+
+    @Test
+    void stillSavesAttributesWithoutATouch() {
+        String id = savedSession();
+        long stored = storedLastAccess(id);
+
+        LazyTouchSessionRepository<Session>.LazyTouchSession loaded = repository.findById(id);
+        loaded.setLastAccessedTime(Instant.ofEpochMilli(stored).plusSeconds(1));
+        loaded.setAttribute("theme", "light");
+        repository.save(loaded);
+
+        assertThat(storedLastAccess(id)).isEqualTo(stored);
+        assertThat(repository.findById(id).<String>getAttribute("theme")).isEqualTo("light");
+    }
+
+    private String savedSession() {
+        LazyTouchSessionRepository<Session>.LazyTouchSession session = repository.createSession();
+        repository.save(session);
+        return session.getId();
+    }
+
+    private long storedLastAccess(String id) {
+        return jdbcTemplate.queryForObject(
+            "SELECT LAST_ACCESS_TIME FROM SPRING_SESSION WHERE SESSION_ID = ?", Long.class, id);
+    }
+
+    private int sessionCount(String id) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM SPRING_SESSION WHERE SESSION_ID = ?", Integer.class, id);
+    }
+}
@@ -0,0 +1,168 @@
+package com.themelyf.dashboard.config;
+
+import com.themelyf.dashboard.DashboardApplication;
+import com.themelyf.dashboard.model.User;
+import com.themelyf.dashboard.repository.UserRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two application contexts, each with its own web server, connection pool and caches, on one
+ * file-mode H2 database: the nodes of a cluster behind a load balancer without sticky sessions.
+ */
+class MultiNodeSessionTest {
+
+    private static final String PASSWORD = "correct-horse-battery";
+
+    private static final String EXPIRED = "This session has been expired";
+
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+
+    private static final Pattern SESSION_COOKIE = Pattern.compile("SESSION=([^;]+)");
+
+    @TempDir
+    static Path databaseDir;
+
+    private static ConfigurableApplicationContext nodeA;
+
+    private static ConfigurableApplicationContext nodeB;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeAll
+    static void startNodes() {
+        String url = "jdbc:h2:file:" + databaseDir.resolve("cluster").toAbsolutePath();
+        // Started one after the other, so only the first node applies the migrations
+        nodeA = start(url);
+        nodeB = start(url);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @Test
+    void aSessionFromOneNodeIsSignedInOnTheOther() throws Exception {
+        String session = login(nodeA, user("cluster-shared"));
+
+        assertThat(dashboard(nodeB, session).statusCode()).isEqualTo(200);
+        assertThat(dashboard(nodeA, session).statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    void aLoginStartedOnOneNodeCompletesOnTheOther() throws Exception {
+        // The CSRF token lives in the session that node A created
+        HttpResponse<String> page = send(nodeA, HttpRequest.newBuilder().GET(), "/login", null);
+        String csrf = match(CSRF, page.body());
+        String session = match(SESSION_COOKIE, page.headers().firstValue("Set-Cookie").orElseThrow());
+
+        String signedIn = submitLogin(nodeB, user("cluster-handover"), session, csrf);
+
+        assertThat(dashboard(nodeA, signedIn).statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    void theSessionLimitCountsSessionsOnEveryNode() throws Exception {
+        String username = user("cluster-limited");
+        String first = login(nodeA, username);
+        String second = login(nodeB, username);
+        String third = login(nodeA, username);
+
+        // A fourth session, on the other node, expires the least recently used one
+        String fourth = login(nodeB, username);
+
+        // The expired session is refused on the node it was not created on, and is then signed out everywhere
+        assertThat(dashboard(nodeB, first).body()).contains(EXPIRED);
+        HttpResponse<String> signedOut = dashboard(nodeA, first);
+        assertThat(signedOut.statusCode()).isEqualTo(302);
+        assertThat(signedOut.headers().firstValue("Location").orElseThrow()).endsWith("/login");
+        for (String session : new String[] {second, third, fourth}) {
+            HttpResponse<String> response = dashboard(nodeA, session);
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.body()).doesNotContain(EXPIRED);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String url) {
+        // Arguments, not default properties, so they override application.yml
+        return new SpringApplicationBuilder(DashboardApplication.class)
+            .run("--spring.datasource.url=" + url, "--server.port=0", "--app.rate-limit.enabled=false");
+    }
+
+    // Each test signs in as its own user, so sessions from other tests do not count against its limit
+    private static String user(String username) {
+        PasswordEncoder passwordEncoder = nodeA.getBean(PasswordEncoder.class);
+        nodeA.getBean(UserRepository.class).save(
+            new User(username, username + "@example.com", passwordEncoder.encode(PASSWORD), "Cluster", "User"));
+        return username;
+    }
+
+    private String login(ConfigurableApplicationContext node, String username) throws Exception {
+        HttpResponse<String> page = send(node, HttpRequest.newBuilder().GET(), "/login", null);
+        String session = match(SESSION_COOKIE, page.headers().firstValue("Set-Cookie").orElseThrow());
+        return submitLogin(node, username, session, match(CSRF, page.body()));
+    }
+
+    // Returns the session id the login migrated to
+    private String submitLogin(ConfigurableApplicationContext node, String username, String session, String csrf)
+            throws Exception {
+        String form = "username=" + encode(username) + "&password=" + encode(PASSWORD) + "&_csrf=" + encode(csrf);
+        HttpResponse<String> response = send(node,
+            HttpRequest.newBuilder()
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form)),
+            "/login", session);
+
+        assertThat(response.statusCode()).isEqualTo(302);
+        assertThat(response.headers().firstValue("Location").orElseThrow()).doesNotContain("error");
+        return match(SESSION_COOKIE, response.headers().firstValue("Set-Cookie").orElseThrow());
+    }
+
+    private HttpResponse<String> dashboard(ConfigurableApplicationContext node, String session) throws Exception {
+        return send(node, HttpRequest.newBuilder().GET(), "/", session);
+    }
+
+    private HttpResponse<String> send(ConfigurableApplicationContext node, HttpRequest.Builder request, String path,
+                                      String session) throws Exception {
+        int port = ((ServletWebServerApplicationContext) node).getWebServer().getPort();
+        request.uri(URI.create("http://localhost:" + port + path));
+        if (session != null) {
+            request.header("Cookie", "SESSION=" + session);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String match(Pattern pattern, String text) {
+        Matcher matcher = pattern.matcher(text);
+        assertThat(matcher.find()).as(pattern + " in " + text).isTrue();
+        return matcher.group(1);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
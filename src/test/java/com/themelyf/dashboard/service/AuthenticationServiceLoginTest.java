@@ -0,0 +1,140 @@
+package com.themelyf.dashboard.service;
+
+import com.themelyf.dashboard.model.User;
+import com.themelyf.dashboard.repository.UserRepository;
+import com.themelyf.dashboard.support.SqlStatementRecorder;
+import com.themelyf.dashboard.support.SqlStatementRecorder.Recording;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Statements are counted on the calling thread only, so scheduled work cannot skew the counts
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:login-test")
+@Import(SqlStatementRecorder.class)
+class AuthenticationServiceLoginTest {
+
+    private static final String PASSWORD = "correct-horse-battery";
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @Autowired
+    private OtpCodeStore otpCodeStore;
+
+    @Autowired
+    private LoginAttemptTracker loginAttemptTracker;
+
+    @BeforeEach
+    void createUsers() {
+        user("login-user", false);
+        user("login-2fa-user", true);
+    }
+
+    @AfterEach
+    void clearLoginState() {
+        SecurityContextHolder.clearContext();
+        // Failures are not carried into the next test
+        loginAttemptTracker.recordSuccess("login-user");
+        loginAttemptTracker.recordSuccess("login-2fa-user");
+    }
+
+    @Test
+    void successfulLoginRunsOneSelectAndOneUpdate() {
+        SqlStatementRecorder.start();
+        Authentication authentication = authenticationService.authenticateUser("login-user", PASSWORD, null);
+        Recording recording = SqlStatementRecorder.stop();
+
+        assertThat(authentication.isAuthenticated()).isTrue();
+        assertThat(recording.selects("users")).as(recording.statements().toString()).isEqualTo(1);
+        assertThat(recording.updates("users")).as(recording.statements().toString()).isEqualTo(1);
+    }
+
+    @Test
+    void loginByEmailRunsOneSelectAndOneUpdate() {
+        SqlStatementRecorder.start();
+        authenticationService.authenticateUser("login-user@example.com", PASSWORD, null);
+        Recording recording = SqlStatementRecorder.stop();
+
+        assertThat(recording.selects("users")).as(recording.statements().toString()).isEqualTo(1);
+        assertThat(recording.updates("users")).as(recording.statements().toString()).isEqualTo(1);
+    }
+
+    @Test
+    void failedLoginRunsOneSelectAndNoUpdate() {
+        SqlStatementRecorder.start();
+        assertThatThrownBy(() -> authenticationService.authenticateUser("login-user", "wrong-password", null))
+            .isInstanceOf(BadCredentialsException.class);
+        Recording recording = SqlStatementRecorder.stop();
+
+        assertThat(recording.selects("users")).as(recording.statements().toString()).isEqualTo(1);
+        assertThat(recording.updates("users")).as(recording.statements().toString()).isZero();
+    }
+
+    @Test
+    void twoFactorLoginRunsOneSelectAndOneUpdate() {
+        User user = userRepository.findByUsername("login-2fa-user").orElseThrow();
+        String code = otpCodeStore.issue(user.getId());
+
+        SqlStatementRecorder.start();
+        authenticationService.authenticateUser("login-2fa-user", PASSWORD, code);
+        Recording recording = SqlStatementRecorder.stop();
+
+        assertThat(recording.selects("users")).as(recording.statements().toString()).isEqualTo(1);
+        assertThat(recording.updates("users")).as(recording.statements().toString()).isEqualTo(1);
+    }
+
+    @Test
+    void wrongOtpRunsOneSelectAndNoUpdate() {
+        SqlStatementRecorder.start();
+        assertThatThrownBy(() -> authenticationService.authenticateUser("login-2fa-user", PASSWORD, "000000"))
+            .isInstanceOf(BadCredentialsException.class);
+        Recording recording = SqlStatementRecorder.stop();
+
+        assertThat(recording.selects("users")).as(recording.statements().toString()).isEqualTo(1);
+        assertThat(recording.updates("users")).as(recording.statements().toString()).isZero();
+    }
+
+    @Test
+    void unknownLoginStillChecksAPassword() {
+        long before = completedHashes();
+
+        assertThatThrownBy(() -> authenticationService.authenticateUser("no-such-user", PASSWORD, null))
+            .isInstanceOf(BadCredentialsException.class);
+
+        // The first unknown login also hashes the stand-in password once
+        assertThat(completedHashes() - before).isBetween(1L, 2L);
+
+        before = completedHashes();
+        assertThatThrownBy(() -> authenticationService.authenticateUser("still-no-such-user", PASSWORD, null))
+            .isInstanceOf(BadCredentialsException.class);
+        assertThat(completedHashes() - before).isEqualTo(1);
+    }
+
+    private void user(String username, boolean twoFactor) {
+        if (userRepository.existsByUsername(username)) {
+            return;
+        }
+        User user = new User(username, username + "@example.com", passwordEncoder.encode(PASSWORD), "Login", "Test");
+        user.setTwoFactorEnabled(twoFactor);
+        userRepository.save(user);
+    }
+
+    private long completedHashes() {
+        return (Long) passwordEncoder.getStatistics().get("completed");
+    }
+}
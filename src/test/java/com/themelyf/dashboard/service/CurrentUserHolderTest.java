@@ -0,0 +1,144 @@
+package com.themelyf.dashboard.service;
+
+import com.themelyf.dashboard.config.CurrentUser;
+import com.themelyf.dashboard.model.CachedUserDetails;
+import com.themelyf.dashboard.model.User;
+import com.themelyf.dashboard.repository.UserRepository;
+import com.themelyf.dashboard.support.SqlStatementRecorder;
+import com.themelyf.dashboard.support.SqlStatementRecorder.Recording;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Requests run on the test thread, so the recorder sees every statement a request sends
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:current-user-test")
+@AutoConfigureMockMvc
+@Import({SqlStatementRecorder.class, CurrentUserHolderTest.CurrentUserController.class})
+class CurrentUserHolderTest {
+
+    private static final String USERNAME = "current-user";
+
+    private static final String PASSWORD = "correct-horse-battery";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BoundedPasswordEncoder passwordEncoder;
+
+    private Cookie session;
+
+    @BeforeEach
+    void signIn() throws Exception {
+        if (!userRepository.existsByUsername(USERNAME)) {
+            userRepository.save(new User(USERNAME, USERNAME + "@example.com", passwordEncoder.encode(PASSWORD),
+                "Current", "User"));
+        }
+        session = mockMvc.perform(formLogin("/login").user(USERNAME).password(PASSWORD))
+            .andExpect(status().is3xxRedirection())
+            .andReturn().getResponse().getCookie("SESSION");
+        assertThat(session).isNotNull();
+    }
+
+    @Test
+    void loadsTheUserAtMostOncePerRequest() throws Exception {
+        SqlStatementRecorder.start();
+        mockMvc.perform(get("/test/current-user").cookie(session))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.principal").value(USERNAME))
+            .andExpect(jsonPath("$.argument").value(USERNAME))
+            .andExpect(jsonPath("$.sameEntity").value(true));
+        Recording recording = SqlStatementRecorder.stop();
+
+        assertThat(recording.selects("users")).as(recording.statements().toString()).isEqualTo(1);
+    }
+
+    @Test
+    void resolvesThePrincipalWithoutAQuery() throws Exception {
+        SqlStatementRecorder.start();
+        mockMvc.perform(get("/test/current-principal").cookie(session))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.principal").value(USERNAME))
+            .andExpect(jsonPath("$.loggedIn").value(true));
+        Recording recording = SqlStatementRecorder.stop();
+
+        assertThat(recording.selects("users")).as(recording.statements().toString()).isZero();
+    }
+
+    @Test
+    void changePasswordLoadsTheUserOnlyForTheWrite() throws Exception {
+        SqlStatementRecorder.start();
+        mockMvc.perform(post("/change-password").cookie(session).with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"currentPassword\":\"not-the-password\",\"newPassword\":\"another-password\"}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.success").value(false));
+        Recording recording = SqlStatementRecorder.stop();
+
+        assertThat(recording.selects("users")).as(recording.statements().toString()).isEqualTo(1);
+    }
+
+    @Test
+    void anonymousRequestsRunNoUserQuery() throws Exception {
+        SqlStatementRecorder.start();
+        mockMvc.perform(get("/test/current-principal"))
+            .andExpect(status().is3xxRedirection());
+        Recording recording = SqlStatementRecorder.stop();
+
+        assertThat(recording.selects("users")).isZero();
+    }
+
+    // Asks for the current user every way the application can, several times in one request
+    @RestController
+    static class CurrentUserController {
+
+        @Autowired
+        private AuthenticationService authenticationService;
+
+        @Autowired
+        private CurrentUserHolder currentUserHolder;
+
+        @GetMapping("/test/current-user")
+        Map<String, Object> currentUser(@CurrentUser CachedUserDetails principal, @CurrentUser User user) {
+            User again = authenticationService.getCurrentUser();
+            User holder = currentUserHolder.getUser();
+
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("principal", principal.username());
+            body.put("argument", user.getUsername());
+            body.put("sameEntity", user == again && again == holder && authenticationService.isUserLoggedIn());
+            return body;
+        }
+
+        @GetMapping("/test/current-principal")
+        Map<String, Object> currentPrincipal(@CurrentUser CachedUserDetails principal) {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("principal", authenticationService.getCurrentPrincipal().username());
+            body.put("loggedIn", principal != null && currentUserHolder.getPrincipal() == principal &&
+                authenticationService.isUserLoggedIn());
+            return body;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.themelyf.dashboard.service;
+
+import com.themelyf.dashboard.model.DashboardItem;
+import com.themelyf.dashboard.model.ItemBulkRequest;
+import com.themelyf.dashboard.model.ItemFilter;
+import com.themelyf.dashboard.repository.DashboardItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Every search is checked against the LIKE query the index replaces
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:search-index-test")
+class DashboardSearchIndexTest {
+
+    @Autowired
+    private DashboardSearchIndex searchIndex;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private DashboardBulkService bulkService;
+
+    @Autowired
+    private DashboardItemRepository repository;
+
+    @Test
+    void matchesTheSqlSearchForShortAndLongTerms() {
+        save("Quarterly Report", "Revenue by region", "Finance");
+        save("Release notes", null, "Engineering");
+        save("ROADMAP", "Plans for Q3", "Planning");
+
+        assertThat(searchIndex.isReady()).isTrue();
+        for (String term : List.of("r", "RE", "rep", "report", "quarterly report", "ly re", "for q3",
+                "Q3", "engineering", "plan")) {
+            assertThat(assertSameAsSql(term)).as(term).isNotEmpty();
+        }
+        // Terms that only exist across two fields or not at all
+        assertThat(assertSameAsSql("reportrevenue")).isEmpty();
+        assertThat(assertSameAsSql("zzq")).isEmpty();
+        assertThat(assertSameAsSql("no such words")).isEmpty();
+    }
+
+    @Test
+    void followsSavedAndDeletedItems() {
+        DashboardItem item = save("Onboarding checklist", "Steps for new starters", "People");
+        assertThat(assertSameAsSql("checklist")).extracting(DashboardItem::getId).contains(item.getId());
+
+        item.setTitle("Offboarding tasks");
+        dashboardService.saveItem(item);
+        assertThat(assertSameAsSql("checklist")).isEmpty();
+        assertThat(assertSameAsSql("offboarding")).extracting(DashboardItem::getId).contains(item.getId());
+
+        dashboardService.deleteItem(item.getId());
+        assertThat(assertSameAsSql("offboarding")).isEmpty();
+        assertThat(assertSameAsSql("new starters")).isEmpty();
+    }
+
+    @Test
+    void followsBulkChanges() {
+        DashboardItem first = save("Vendor contract", "Renewal due", "Legal");
+        DashboardItem second = save("Vendor invoice", "Paid", "Legal");
+
+        bulkService.update(new ItemBulkRequest(List.of(first.getId(), second.getId()), null, "Procurement", null));
+        assertThat(assertSameAsSql("procurement")).hasSize(2);
+        assertThat(assertSameAsSql("legal")).isEmpty();
+
+        bulkService.delete(new ItemBulkRequest(List.of(first.getId()), null, null, null));
+        assertThat(assertSameAsSql("vendor")).extracting(DashboardItem::getId).containsExactly(second.getId());
+    }
+
+    @Test
+    void matchesTheSqlSearchAfterARebuild() {
+        save("Incident review", "Postmortem for the outage", "Operations");
+
+        searchIndex.rebuild();
+
+        assertThat(searchIndex.size()).isEqualTo(repository.count());
+        assertThat(assertSameAsSql("postmortem")).isNotEmpty();
+        assertThat(assertSameAsSql("o")).isNotEmpty();
+    }
+
+    @Test
+    void indexingAnItemAgainDropsItsOldText() {
+        DashboardItem item = save("Draft agenda", "Topics for the offsite", "Events");
+        item.setTitle("Final schedule");
+        DashboardItem updated = repository.save(item);
+
+        searchIndex.indexAll(List.of(updated));
+
+        // Short terms are answered from the postings alone, so one left behind would show up here
+        assertThat(assertSameAsSql("nda")).extracting(DashboardItem::getId).doesNotContain(item.getId());
+        assertThat(assertSameAsSql("draft agenda")).isEmpty();
+        assertThat(assertSameAsSql("final schedule")).extracting(DashboardItem::getId).containsExactly(item.getId());
+    }
+
+    @Test
+    void keepsChangesMadeWhileRebuilding() {
+        DashboardItem item = save("Budget draft", "Numbers for next year", "Finance");
+
+        // The rename lands after the first page was read, so that page still holds the old title
+        AtomicBoolean renamed = new AtomicBoolean();
+        DashboardItemRepository renamingRepository = (DashboardItemRepository) Proxy.newProxyInstance(
+            getClass().getClassLoader(), new Class<?>[] {DashboardItemRepository.class}, (proxy, method, args) -> {
+                Object result;
+                try {
+                    result = method.invoke(repository, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (method.getName().equals("findAll") && renamed.compareAndSet(false, true)) {
+                    DashboardItem current = repository.findById(item.getId()).orElseThrow();
+                    current.setTitle("Budget approved");
+                    dashboardService.saveItem(current);
+                }
+                return result;
+            });
+
+        ReflectionTestUtils.setField(searchIndex, "repository", renamingRepository);
+        try {
+            searchIndex.rebuild();
+        } finally {
+            ReflectionTestUtils.setField(searchIndex, "repository", repository);
+        }
+
+        assertThat(renamed).isTrue();
+        assertThat(assertSameAsSql("budget draft")).isEmpty();
+        assertThat(assertSameAsSql("budget approved")).extracting(DashboardItem::getId).containsExactly(item.getId());
+        assertThat(searchIndex.size()).isEqualTo(repository.count());
+    }
+
+    @Test
+    void followsBulkChangesByFilter() {
+        save("Travel policy", "Per diem rates", "Handbook");
+        save("Expense policy", "Receipts", "Handbook");
+
+        bulkService.update(new ItemBulkRequest(null, ItemFilter.of(null, "Handbook", null),
+            "Policies", null));
+        assertThat(assertSameAsSql("handbook")).isEmpty();
+        assertThat(assertSameAsSql("policies")).hasSize(2);
+
+        bulkService.delete(new ItemBulkRequest(null, ItemFilter.of("travel", "Policies", null),
+            null, null));
+        assertThat(assertSameAsSql("policy")).hasSize(1);
+    }
+
+    @Test
+    void leavesLikeWildcardsToTheDatabase() {
+        save("Coverage at 50%", "Half done", "Testing");
+
+        assertThat(searchIndex.supports("50%")).isFalse();
+        assertThat(searchIndex.supports("a_b")).isFalse();
+        assertThat(dashboardService.searchItems("50%")).extracting(DashboardItem::getId)
+            .containsExactlyElementsOf(ids(repository.findBySearchTerm("50%")));
+    }
+
+    private DashboardItem save(String title, String description, String category) {
+        return dashboardService.saveItem(new DashboardItem(title, description, category, "Active"));
+    }
+
+    private List<DashboardItem> assertSameAsSql(String term) {
+        List<DashboardItem> indexed = searchIndex.search(term);
+        assertThat(ids(indexed)).as(term).isEqualTo(ids(repository.findBySearchTerm(term)));
+        return indexed;
+    }
+
+    private static List<Long> ids(List<DashboardItem> items) {
+        return items.stream().map(DashboardItem::getId).sorted().toList();
+    }
+}
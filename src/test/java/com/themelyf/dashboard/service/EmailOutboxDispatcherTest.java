@@ -0,0 +1,192 @@
+package com.themelyf.dashboard.service;
+
+import com.themelyf.dashboard.model.EmailOutboxMessage;
+import com.themelyf.dashboard.repository.EmailOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+// Scheduled polling is pushed out of the way so each test drives dispatch() itself
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:outbox-test",
+    "management.health.mail.enabled=false",
+    "app.email.outbox.poll-interval-ms=3600000",
+    "app.email.outbox.maintenance-interval-ms=3600000",
+    "app.email.outbox.max-attempts=4",
+    "app.email.outbox.initial-backoff=10s",
+    "app.email.outbox.max-backoff=30s"
+})
+class EmailOutboxDispatcherTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(10);
+
+    @Autowired
+    private EmailOutboxDispatcher dispatcher;
+
+    @Autowired
+    private EmailOutboxRepository repository;
+
+    @MockBean
+    private JavaMailSender mailSender;
+
+    @BeforeEach
+    void clearOutbox() {
+        repository.deleteAll();
+        reset(mailSender);
+    }
+
+    @Test
+    void claimsDueMessagesAndMarksThemSent() {
+        EmailOutboxMessage first = enqueue(0, null);
+        EmailOutboxMessage second = enqueue(0, null);
+
+        dispatcher.dispatch();
+
+        verify(mailSender, timeout(WAIT.toMillis())).send(any(SimpleMailMessage[].class));
+        assertThat(awaitStatus(first, EmailOutboxMessage.Status.SENT).getAttempts()).isEqualTo(1);
+        assertThat(awaitStatus(second, EmailOutboxMessage.Status.SENT).getSentAt()).isNotNull();
+    }
+
+    @Test
+    void leavesMessagesThatAreNotDueYet() {
+        EmailOutboxMessage later = enqueue(0, LocalDateTime.now().plusMinutes(5));
+
+        dispatcher.dispatch();
+
+        EmailOutboxMessage stored = repository.findById(later.getId()).orElseThrow();
+        assertThat(stored.getStatus()).isEqualTo(EmailOutboxMessage.Status.PENDING);
+        assertThat(stored.getAttempts()).isZero();
+    }
+
+    @Test
+    void reschedulesAFailedSendWithTheInitialBackoff() {
+        failSends();
+        EmailOutboxMessage message = enqueue(0, null);
+        LocalDateTime before = LocalDateTime.now();
+
+        dispatcher.dispatch();
+
+        EmailOutboxMessage stored = awaitRescheduled(message);
+        assertThat(stored.getAttempts()).isEqualTo(1);
+        assertThat(stored.getLastError()).isEqualTo("SMTP server unavailable");
+        assertBackoff(stored, before, Duration.ofSeconds(10));
+    }
+
+    @Test
+    void doublesTheBackoffForEachAttempt() {
+        failSends();
+        EmailOutboxMessage message = enqueue(1, null);
+        LocalDateTime before = LocalDateTime.now();
+
+        dispatcher.dispatch();
+
+        EmailOutboxMessage stored = awaitRescheduled(message);
+        assertThat(stored.getAttempts()).isEqualTo(2);
+        assertBackoff(stored, before, Duration.ofSeconds(20));
+    }
+
+    @Test
+    void capsTheBackoffAtTheMaximum() {
+        failSends();
+        EmailOutboxMessage message = enqueue(2, null);
+        LocalDateTime before = LocalDateTime.now();
+
+        dispatcher.dispatch();
+
+        // 10s << 2 would be 40s
+        assertBackoff(awaitRescheduled(message), before, Duration.ofSeconds(30));
+    }
+
+    @Test
+    void givesUpAfterTheLastAttempt() {
+        failSends();
+        EmailOutboxMessage message = enqueue(3, null);
+
+        dispatcher.dispatch();
+
+        EmailOutboxMessage stored = awaitStatus(message, EmailOutboxMessage.Status.FAILED);
+        assertThat(stored.getAttempts()).isEqualTo(4);
+        assertThat(stored.getLastError()).isEqualTo("SMTP server unavailable");
+    }
+
+    @Test
+    void releasesMessagesLeftInSendingByACrashedWorker() {
+        EmailOutboxMessage message = enqueue(1, null);
+        message.setStatus(EmailOutboxMessage.Status.SENDING);
+        message.setClaimedAt(LocalDateTime.now().minusHours(1));
+        repository.save(message);
+
+        dispatcher.maintain();
+
+        assertThat(repository.findById(message.getId()).orElseThrow().getStatus())
+            .isEqualTo(EmailOutboxMessage.Status.PENDING);
+    }
+
+    private void failSends() {
+        doThrow(new MailSendException("SMTP server unavailable")).when(mailSender).send(any(SimpleMailMessage[].class));
+    }
+
+    private EmailOutboxMessage enqueue(int attempts, LocalDateTime nextAttemptAt) {
+        EmailOutboxMessage message = new EmailOutboxMessage("noreply@example.com", "user@example.com", "Subject", "Body");
+        message.setAttempts(attempts);
+        message.setNextAttemptAt(nextAttemptAt);
+        return repository.save(message);
+    }
+
+    // Jitter is +/-20% of the nominal delay
+    private static void assertBackoff(EmailOutboxMessage message, LocalDateTime before, Duration nominal) {
+        LocalDateTime after = LocalDateTime.now();
+        assertThat(message.getNextAttemptAt())
+            .isAfterOrEqualTo(before.plus(nominal.multipliedBy(8).dividedBy(10)))
+            .isBeforeOrEqualTo(after.plus(nominal.multipliedBy(12).dividedBy(10)));
+    }
+
+    // Sending happens on the dispatcher's workers, so the outcome is polled for
+    private EmailOutboxMessage awaitStatus(EmailOutboxMessage message, EmailOutboxMessage.Status status) {
+        long deadline = System.nanoTime() + WAIT.toNanos();
+        while (true) {
+            EmailOutboxMessage stored = repository.findById(message.getId()).orElseThrow();
+            if (stored.getStatus() == status || System.nanoTime() > deadline) {
+                assertThat(stored.getStatus()).isEqualTo(status);
+                return stored;
+            }
+            sleep();
+        }
+    }
+
+    private EmailOutboxMessage awaitRescheduled(EmailOutboxMessage message) {
+        long deadline = System.nanoTime() + WAIT.toNanos();
+        while (true) {
+            EmailOutboxMessage stored = repository.findById(message.getId()).orElseThrow();
+            if (stored.getLastError() != null || System.nanoTime() > deadline) {
+                assertThat(stored.getStatus()).isEqualTo(EmailOutboxMessage.Status.PENDING);
+                return stored;
+            }
+            sleep();
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
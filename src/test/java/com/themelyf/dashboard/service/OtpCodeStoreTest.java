@@ -0,0 +1,112 @@
+package com.themelyf.dashboard.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OtpCodeStoreTest {
+
+    private OtpCodeStore store;
+
+    @BeforeEach
+    void createStore() {
+        store = store(Duration.ofMinutes(5), 3);
+    }
+
+    @Test
+    void acceptsAnIssuedCodeOnce() {
+        String code = store.issue(1L);
+
+        assertThat(code).matches("\\d{6}");
+        assertThat(store.verify(1L, code)).isTrue();
+        assertThat(store.verify(1L, code)).isFalse();
+    }
+
+    @Test
+    void keepsCodesPerUser() {
+        String code = store.issue(1L);
+        store.issue(2L);
+
+        assertThat(store.verify(2L, code)).isFalse();
+        assertThat(store.verify(1L, code)).isTrue();
+    }
+
+    @Test
+    void rejectsACodeAfterItsTtl() throws InterruptedException {
+        OtpCodeStore shortLived = store(Duration.ofMillis(200), 3);
+        String code = shortLived.issue(1L);
+
+        Thread.sleep(400);
+
+        assertThat(shortLived.verify(1L, code)).isFalse();
+    }
+
+    @Test
+    void acceptsTheCodeAfterFewerWrongGuessesThanTheLimit() {
+        String code = store.issue(1L);
+
+        assertThat(store.verify(1L, wrong(code))).isFalse();
+        assertThat(store.verify(1L, wrong(code))).isFalse();
+        assertThat(store.verify(1L, code)).isTrue();
+    }
+
+    @Test
+    void dropsTheCodeOnceTheAttemptsAreUsedUp() {
+        String code = store.issue(1L);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(store.verify(1L, wrong(code))).isFalse();
+        }
+
+        assertThat(store.verify(1L, code)).isFalse();
+        assertThat(store.getStatistics())
+            .containsEntry("rejected", 3L)
+            .containsEntry("exhausted", 1L);
+    }
+
+    @Test
+    void issuingAgainReplacesTheOutstandingCodeAndItsAttempts() {
+        String first = store.issue(1L);
+        store.verify(1L, wrong(first));
+        store.verify(1L, wrong(first));
+        String second = store.issue(1L);
+
+        assertThat(store.verify(1L, wrong(second))).isFalse();
+        assertThat(store.verify(1L, wrong(second))).isFalse();
+        assertThat(store.verify(1L, second)).isTrue();
+    }
+
+    @Test
+    void invalidateDropsTheCode() {
+        String code = store.issue(1L);
+
+        store.invalidate(1L);
+
+        assertThat(store.verify(1L, code)).isFalse();
+    }
+
+    @Test
+    void rejectsAMissingCode() {
+        store.issue(1L);
+
+        assertThat(store.verify(1L, null)).isFalse();
+        assertThat(store.verify(2L, "123456")).isFalse();
+    }
+
+    private static OtpCodeStore store(Duration ttl, int maxAttempts) {
+        OtpCodeStore store = new OtpCodeStore();
+        ReflectionTestUtils.setField(store, "ttl", ttl);
+        ReflectionTestUtils.setField(store, "maxAttempts", maxAttempts);
+        ReflectionTestUtils.setField(store, "maxTrackedKeys", 100L);
+        store.init();
+        return store;
+    }
+
+    private static String wrong(String code) {
+        return String.format("%06d", (Integer.parseInt(code) + 1) % 1_000_000);
+    }
+}
@@ -0,0 +1,144 @@
+package com.themelyf.dashboard.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TotpServiceTest {
+
+    // "12345678901234567890", the RFC 6238 test secret
+    private static final String SECRET = "GEZDGNBVGY3TQOJQGEZDGNBVGY3TQOJQ";
+
+    private TotpService totpService;
+
+    @BeforeEach
+    void createService() {
+        totpService = new TotpService();
+        ReflectionTestUtils.setField(totpService, "window", 1);
+        ReflectionTestUtils.setField(totpService, "maxTrackedKeys", 100L);
+        totpService.init();
+    }
+
+    @Test
+    void computesTheRfcTestVector() {
+        // RFC 6238 appendix B, T = 59s, truncated to six digits
+        assertThat(code(59 / 30)).isEqualTo("287082");
+    }
+
+    @Test
+    void acceptsTheCurrentStep() {
+        assertThat(totpService.verify(1L, SECRET, code(currentStep()))).isTrue();
+    }
+
+    @Test
+    void acceptsOneStepEitherSide() {
+        long step = currentStep();
+        assertThat(totpService.verify(1L, SECRET, code(step - 1))).isTrue();
+        assertThat(totpService.verify(2L, SECRET, code(step + 1))).isTrue();
+    }
+
+    @Test
+    void rejectsStepsOutsideTheWindow() {
+        long step = currentStep();
+        assertThat(totpService.verify(1L, SECRET, code(step - 2))).isFalse();
+        assertThat(totpService.verify(1L, SECRET, code(step + 2))).isFalse();
+        assertThat(totpService.getStatistics()).containsEntry("rejected", 2L);
+    }
+
+    @Test
+    void widerWindowAcceptsMoreSteps() {
+        ReflectionTestUtils.setField(totpService, "window", 2);
+        totpService.init();
+
+        assertThat(totpService.verify(1L, SECRET, code(currentStep() - 2))).isTrue();
+    }
+
+    @Test
+    void rejectsAReplayedOrEarlierStep() {
+        long step = currentStep();
+        assertThat(totpService.verify(1L, SECRET, code(step))).isTrue();
+        assertThat(totpService.verify(1L, SECRET, code(step))).isFalse();
+        assertThat(totpService.verify(1L, SECRET, code(step - 1))).isFalse();
+        assertThat(totpService.getStatistics()).containsEntry("replayed", 2L);
+
+        // Another user's use of the same step is independent
+        assertThat(totpService.verify(2L, SECRET, code(step))).isTrue();
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        String code = code(currentStep());
+        assertThat(totpService.verify(1L, null, code)).isFalse();
+        assertThat(totpService.verify(1L, "not-base32!", code)).isFalse();
+        assertThat(totpService.verify(1L, SECRET, null)).isFalse();
+        assertThat(totpService.verify(1L, SECRET, code.substring(1))).isFalse();
+    }
+
+    @Test
+    void generatedSecretsVerify() {
+        String secret = totpService.generateSecret();
+        assertThat(secret).hasSize(32).matches("[A-Z2-7]+");
+        assertThat(totpService.verify(1L, secret, code(secret, currentStep()))).isTrue();
+    }
+
+    // Waits out the last second of a step, so the service sees the same step as the test
+    private static long currentStep() {
+        long millis = System.currentTimeMillis();
+        long remaining = 30_000 - millis % 30_000;
+        if (remaining < 1000) {
+            sleep(remaining + 50);
+            millis = System.currentTimeMillis();
+        }
+        return millis / 1000 / 30;
+    }
+
+    private static String code(long step) {
+        return code(SECRET, step);
+    }
+
+    // An independent implementation of RFC 6238 with HMAC-SHA1 and six digits
+    private static String code(String secret, long step) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA1");
+            mac.init(new SecretKeySpec(base32(secret), "HmacSHA1"));
+            byte[] hash = mac.doFinal(ByteBuffer.allocate(Long.BYTES).putLong(step).array());
+            int offset = hash[hash.length - 1] & 0x0f;
+            int binary = ByteBuffer.wrap(hash, offset, 4).getInt() & 0x7fffffff;
+            return String.format("%06d", binary % 1_000_000);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] base32(String encoded) {
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZ234567";
+        ByteBuffer decoded = ByteBuffer.allocate(encoded.length() * 5 / 8);
+        long buffer = 0;
+        int bits = 0;
+        for (char c : encoded.toCharArray()) {
+            buffer = (buffer << 5) | alphabet.indexOf(c);
+            bits += 5;
+            if (bits >= 8) {
+                decoded.put((byte) (buffer >> (bits - 8)));
+                bits -= 8;
+            }
+        }
+        return decoded.array();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
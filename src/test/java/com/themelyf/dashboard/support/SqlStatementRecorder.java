@@ -0,0 +1,106 @@
+package com.themelyf.dashboard.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Wraps the DataSource so the SQL sent by the current thread can be recorded between
+ * {@link #start()} and {@link #stop()}. Other threads (schedulers, pools) are not recorded,
+ * so query-count assertions are not disturbed by background work. Import it into a test
+ * context with {@code @Import(SqlStatementRecorder.class)}.
+ */
+public class SqlStatementRecorder implements BeanPostProcessor {
+
+    private static final ThreadLocal<List<String>> recorded = new ThreadLocal<>();
+
+    public static void start() {
+        recorded.set(new ArrayList<>());
+    }
+
+    public static Recording stop() {
+        List<String> statements = recorded.get();
+        recorded.remove();
+        return new Recording(statements != null ? statements : List.of());
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return proxy(DataSource.class, (method, args) -> {
+                Object result = invoke(dataSource, method, args);
+                return result instanceof Connection connection ? recording(Connection.class, connection) : result;
+            });
+        }
+        return bean;
+    }
+
+    // Connections and plain statements record the SQL passed to them; a prepared statement is
+    // recorded once however often it is executed or batched
+    private static <T> T recording(Class<T> type, T target) {
+        return proxy(type, (method, args) -> {
+            String name = method.getName();
+            if (args != null && args.length > 0 && args[0] instanceof String sql &&
+                (name.startsWith("prepare") || name.startsWith("execute") || name.equals("addBatch"))) {
+                record(sql);
+            }
+            Object result = invoke(target, method, args);
+            return result instanceof Statement statement && name.equals("createStatement")
+                ? recording(Statement.class, statement) : result;
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        InvocationHandler invocationHandler = (instance, method, args) -> handler.handle(method, args);
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, invocationHandler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void record(String sql) {
+        List<String> statements = recorded.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Method method, Object[] args) throws Throwable;
+    }
+
+    public record Recording(List<String> statements) {
+
+        public long selects(String table) {
+            return count("select", table);
+        }
+
+        public long updates(String table) {
+            return count("update", table);
+        }
+
+        private long count(String verb, String table) {
+            Pattern pattern = Pattern.compile("\\b" + table + "\\b");
+            return statements.stream()
+                .map(sql -> sql.trim().toLowerCase(Locale.ROOT))
+                .filter(sql -> sql.startsWith(verb) && pattern.matcher(sql).find())
+                .count();
+        }
+    }
+}